@@ -0,0 +1,165 @@
+package com.smartcity.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one key=value line per API request to the "com.smartcity.access" logger, which
+ * logback-spring.xml sends through its own non-blocking async appender. Requests are sorted
+ * into categories by outcome and each category is sampled at its own rate, so server errors
+ * and slow requests are always logged while a flood of 200s, 401s or shed 503s costs a random
+ * number per request. Every line carries its sample rate, so counts can be scaled back up.
+ *
+ * Runs outside the concurrency limiter, so shed requests are logged too; the limiter marks them
+ * with a request attribute. The security filters leave the city and user id in request
+ * attributes, as the security context is cleared by the time this filter writes the line.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("com.smartcity.access");
+
+    public static final String CITY_ATTRIBUTE = AccessLogFilter.class.getName() + ".city";
+
+    public static final String USER_ATTRIBUTE = AccessLogFilter.class.getName() + ".user";
+
+    // Set by ConcurrencyLimitFilter; other 503s with Retry-After, such as a full bulkhead, are server errors
+    public static final String SHED_ATTRIBUTE = AccessLogFilter.class.getName() + ".shed";
+
+    @Value("${access-log.enabled:true}")
+    private boolean enabled;
+
+    // Requests at least this slow are logged whatever their status
+    @Value("${access-log.slow-ms:1000}")
+    private long slowMillis;
+
+    @Value("${access-log.sample-rate.success:0.01}")
+    private double successRate;
+
+    @Value("${access-log.sample-rate.client-error:0.1}")
+    private double clientErrorRate;
+
+    @Value("${access-log.sample-rate.auth-failure:0.05}")
+    private double authFailureRate;
+
+    @Value("${access-log.sample-rate.shed:0.01}")
+    private double shedRate;
+
+    @Value("${access-log.sample-rate.server-error:1.0}")
+    private double serverErrorRate;
+
+    @Value("${access-log.sample-rate.slow:1.0}")
+    private double slowRate;
+
+    private final Map<Category, Double> rates = new EnumMap<>(Category.class);
+
+    private enum Category {
+        SUCCESS, CLIENT_ERROR, AUTH_FAILURE, SHED, SERVER_ERROR, SLOW
+    }
+
+    @Override
+    protected void initFilterBean() {
+        rates.put(Category.SUCCESS, successRate);
+        rates.put(Category.CLIENT_ERROR, clientErrorRate);
+        rates.put(Category.AUTH_FAILURE, authFailureRate);
+        rates.put(Category.SHED, shedRate);
+        rates.put(Category.SERVER_ERROR, serverErrorRate);
+        rates.put(Category.SLOW, slowRate);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            Category category = categorize(request, status, millis);
+            double rate = rates.get(category);
+            if (accessLog.isInfoEnabled() && rate > 0
+                    && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate)) {
+                accessLog.info(line(request, status, millis, category, rate));
+            }
+        }
+    }
+
+    private Category categorize(HttpServletRequest request, int status, long millis) {
+        if (request.getAttribute(SHED_ATTRIBUTE) != null) {
+            return Category.SHED;
+        }
+        if (status >= 500) {
+            return Category.SERVER_ERROR;
+        }
+        if (millis >= slowMillis) {
+            return Category.SLOW;
+        }
+        if (status == HttpServletResponse.SC_UNAUTHORIZED || status == HttpServletResponse.SC_FORBIDDEN) {
+            return Category.AUTH_FAILURE;
+        }
+        return status >= 400 ? Category.CLIENT_ERROR : Category.SUCCESS;
+    }
+
+    private static String line(HttpServletRequest request, int status, long millis, Category category, double rate) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        StringBuilder line = new StringBuilder(160);
+        line.append("method=").append(request.getMethod());
+        line.append(" route=");
+        // Without a matched handler only the raw path is known, which the client chose
+        appendValue(line, pattern != null ? pattern.toString() : request.getRequestURI());
+        line.append(" status=").append(status);
+        line.append(" ms=").append(millis);
+        line.append(" city=");
+        appendValue(line, String.valueOf(request.getAttribute(CITY_ATTRIBUTE)));
+        line.append(" user=").append(request.getAttribute(USER_ATTRIBUTE));
+        line.append(" category=").append(category.name().toLowerCase());
+        line.append(" sample=").append(rate);
+        return line.toString();
+    }
+
+    // Quotes values that would break the key=value format and drops control characters
+    private static void appendValue(StringBuilder line, String value) {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=' || c == '\\';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c >= ' ') {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartcity.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed number of permits for one traffic class. A caller waits at most maxWaitMillis for a
+ * permit and is turned away after that, so a burst of one class can hold at most
+ * maxConcurrent request threads and never queues up behind itself for long.
+ */
+final class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final int statementTimeoutSeconds;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    Bulkhead(int maxConcurrent, long maxWaitMillis, int statementTimeoutSeconds) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.statementTimeoutSeconds = statementTimeoutSeconds;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    boolean tryAcquire() {
+        long started = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - started;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+        accepted.increment();
+        return true;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    void recordTimeout() {
+        timedOut.increment();
+    }
+
+    int getStatementTimeoutSeconds() {
+        return statementTimeoutSeconds;
+    }
+
+    Map<String, Object> getStatistics() {
+        long acceptedCount = accepted.sum();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("maxConcurrent", maxConcurrent);
+        statistics.put("active", maxConcurrent - permits.availablePermits());
+        statistics.put("waiting", waiting.get());
+        statistics.put("accepted", acceptedCount);
+        statistics.put("rejected", rejected.sum());
+        statistics.put("timedOut", timedOut.sum());
+        statistics.put("avgWaitMs", acceptedCount == 0 ? 0.0
+                : Math.round(totalWaitNanos.sum() / (double) acceptedCount / 100_000) / 10.0);
+        statistics.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        statistics.put("statementTimeoutSeconds", statementTimeoutSeconds);
+        return statistics;
+    }
+}
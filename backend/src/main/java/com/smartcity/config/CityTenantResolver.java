@@ -0,0 +1,40 @@
+package com.smartcity.config;
+
+import com.smartcity.security.TenantContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Supplies the tenant of every Hibernate session: the current request's city, which Hibernate
+ * adds as a city_id condition to every query on an entity with a @TenantId column and writes
+ * into every insert. Sessions opened outside a request use the root identifier and see every
+ * city.
+ */
+@Component
+public class CityTenantResolver implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        String city = TenantContext.getCurrentCity();
+        return city != null ? city : TenantContext.ALL_CITIES;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantIdentifier) {
+        return TenantContext.ALL_CITIES.equals(tenantIdentifier);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
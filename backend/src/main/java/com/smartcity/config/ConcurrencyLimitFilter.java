@@ -0,0 +1,194 @@
+package com.smartcity.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load before it queues up in Tomcat and the connection pool. API requests are sorted
+ * into lanes, each with a GradientLimit that learns how many requests the lane can have in
+ * flight before latency starts to climb. A request over its lane's limit is answered at once
+ * with 503 and Retry-After instead of waiting for a database connection.
+ *
+ * A lane is only shed against its own limit, so a burst in one lane (say, a flood of logins,
+ * each paying for BCrypt) never sheds another. The lower lanes also share one cap of
+ * server.tomcat.threads.max minus critical-reserved requests in flight, which keeps threads
+ * free for emergency service lookups and logins when complaint submissions and dashboard
+ * refreshes spike. Runs ahead of the security filters, so shed requests cost no token parsing
+ * or user lookup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final byte[] BUSY_BODY = "{\"message\":\"Error: Server is busy, please retry shortly!\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private CorsConfigurationSource corsConfigurationSource;
+
+    @Value("${concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${concurrency-limit.min-limit:2}")
+    private int minLimit;
+
+    // Emergency lookups and logins are never limited below this
+    @Value("${concurrency-limit.critical-min-limit:10}")
+    private int criticalMinLimit;
+
+    @Value("${concurrency-limit.max-limit:200}")
+    private int maxLimit;
+
+    // Request threads the lower lanes can never take from emergency lookups and logins
+    @Value("${concurrency-limit.critical-reserved:10}")
+    private int criticalReserved;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int serverThreads;
+
+    // How much slower than the long-term average a request may be before the limit shrinks
+    @Value("${concurrency-limit.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${concurrency-limit.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final Map<Lane, GradientLimit> limits = new EnumMap<>(Lane.class);
+
+    // Requests in flight in every lane but CRITICAL, at most sharedLimit
+    private final AtomicInteger sharedInflight = new AtomicInteger();
+    private int sharedLimit;
+
+    // Under overload every request could be shed; one line per lane and interval is enough
+    private final RateLimitedLog sheds = new RateLimitedLog(logger, 10_000);
+
+    public enum Lane {
+        // Emergency service reads and logins
+        CRITICAL,
+        // Complaint submissions and other changes
+        WRITE,
+        // Dashboards, lists and other reads
+        READ,
+        // Admin reports over whole tables; also limited by the ANALYTICS bulkhead
+        ANALYTICS
+    }
+
+    private static final Set<String> ANALYTICS_PATHS = Set.of("/api/complaints", "/api/users", "/api/notifications",
+            "/api/complaints/timelines", "/api/complaints/archive");
+
+    @Override
+    protected void initFilterBean() {
+        for (Lane lane : Lane.values()) {
+            limits.put(lane, new GradientLimit(initialLimit, lane == Lane.CRITICAL ? criticalMinLimit : minLimit,
+                    maxLimit, tolerance, smoothing));
+        }
+        sharedLimit = Math.max(minLimit, serverThreads - criticalReserved);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        // Photo downloads stream from disk and would skew the latency of the read lane
+        return !enabled || "OPTIONS".equals(request.getMethod()) || !uri.startsWith("/api/")
+                || uri.startsWith("/api/attachments/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Lane lane = laneOf(request.getMethod(), request.getRequestURI());
+        boolean shared = lane != Lane.CRITICAL;
+        if (shared && sharedInflight.incrementAndGet() > sharedLimit) {
+            sharedInflight.decrementAndGet();
+            shed(request, response, lane, "the lanes below CRITICAL are at their shared limit");
+            return;
+        }
+        try {
+            GradientLimit limit = limits.get(lane);
+            int inflight = limit.tryAcquire();
+            if (inflight < 0) {
+                shed(request, response, lane, "it is at its limit");
+                return;
+            }
+            long started = System.nanoTime();
+            boolean failed = true;
+            try {
+                filterChain.doFilter(request, response);
+                failed = response.getStatus() >= 500;
+            } finally {
+                limit.release(inflight, System.nanoTime() - started, failed);
+            }
+        } finally {
+            if (shared) {
+                sharedInflight.decrementAndGet();
+            }
+        }
+    }
+
+    static Lane laneOf(String method, String uri) {
+        if (("GET".equals(method) && uri.startsWith("/api/emergency-services"))
+                || ("POST".equals(method) && uri.equals("/api/auth/login"))) {
+            return Lane.CRITICAL;
+        }
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return Lane.WRITE;
+        }
+        // Kept apart so that slow reports do not teach the read lane to shed citizen reads
+        return ANALYTICS_PATHS.contains(uri) ? Lane.ANALYTICS : Lane.READ;
+    }
+
+    private void shed(HttpServletRequest request, HttpServletResponse response, Lane lane, String reason)
+            throws IOException {
+        sheds.info(lane + "/" + reason, "Shedding requests in lane {}, {}", lane, reason);
+        request.setAttribute(AccessLogFilter.SHED_ATTRIBUTE, lane);
+        // The CORS filter has not run yet; without its headers browsers would hide the 503
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null) {
+            new DefaultCorsProcessor().processRequest(cors, request, response);
+        }
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BUSY_BODY.length);
+        response.getOutputStream().write(BUSY_BODY);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        limits.forEach((lane, limit) -> statistics.put(lane.name(), limit.getStatistics()));
+        statistics.put("sharedLimit", sharedLimit);
+        statistics.put("sharedInflight", sharedInflight.get());
+        return statistics;
+    }
+}
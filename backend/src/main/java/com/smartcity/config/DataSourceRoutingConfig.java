@@ -0,0 +1,86 @@
+package com.smartcity.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured DataSource. Read-only transactions use the replica pool when
+ * datasource.replica.url is set; all other connections come from the primary pool. Analytics
+ * reports get a small read-only pool of their own, so they can never take the connections
+ * citizen requests are waiting for. With request budgets enabled, statements are counted on
+ * top of all three.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties properties, ReadYourWritesTracker readYourWritesTracker,
+            @Value("${datasource.replica.url:}") String replicaUrl,
+            @Value("${datasource.replica.username:}") String replicaUsername,
+            @Value("${datasource.replica.password:}") String replicaPassword,
+            @Value("${datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+            @Value("${datasource.replica.flyway-migrate:false}") boolean replicaFlywayMigrate,
+            @Value("${bulkhead.analytics.pool-size:2}") int analyticsPoolSize) {
+        HikariDataSource replica = null;
+        if (StringUtils.hasText(replicaUrl)) {
+            replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replicaUrl)
+                    .username(StringUtils.hasText(replicaUsername) ? replicaUsername : properties.determineUsername())
+                    .password(StringUtils.hasText(replicaPassword) ? replicaPassword : properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica");
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            if (replicaFlywayMigrate) {
+                // Only for local replicas that are separate databases rather than real replicas.
+                Flyway.configure().dataSource(replica).locations("classpath:db/migration").load().migrate();
+            }
+        }
+        HikariDataSource analytics = null;
+        if (analyticsPoolSize > 0) {
+            // Reports read from the replica when there is one
+            analytics = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replica != null ? replica.getJdbcUrl() : primaryDataSource.getJdbcUrl())
+                    .username(replica != null ? replica.getUsername() : primaryDataSource.getUsername())
+                    .password(replica != null ? replica.getPassword() : primaryDataSource.getPassword())
+                    .build();
+            analytics.setPoolName("analytics");
+            analytics.setMaximumPoolSize(analyticsPoolSize);
+            analytics.setMinimumIdle(0);
+            analytics.setReadOnly(true);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replica, analytics, readYourWritesTracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+            @Value("${request-budget.enabled:false}") boolean requestBudgetEnabled) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+        return requestBudgetEnabled ? new StatementCountingDataSource(dataSource) : dataSource;
+    }
+}
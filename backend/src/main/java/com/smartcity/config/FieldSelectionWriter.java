@@ -0,0 +1,110 @@
+package com.smartcity.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements the {@code fields=} parameter of list endpoints. Classes annotated with
+ * {@code @JsonFilter(FILTER_ID)} serialize all properties by default (see JacksonConfig);
+ * when fields are requested, only those properties of the top-level objects are written.
+ * Nested objects stay complete. The ObjectWriter for each distinct field set is built once
+ * and reused, so a repeated selection costs no more than the default serialization.
+ */
+@Component
+public class FieldSelectionWriter {
+
+    public static final String FILTER_ID = "fieldSelection";
+
+    private static final int MAX_FIELDS = 32;
+
+    private static final int MAX_CACHED_WRITERS = 256;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Set<String>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public ResponseEntity<?> ok(Object body, String fields) {
+        Set<String> selected = parse(fields);
+        if (selected.isEmpty()) {
+            return ResponseEntity.ok(body);
+        }
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(writerFor(selected).writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error: Could not serialize response", e);
+        }
+    }
+
+    private ObjectWriter writerFor(Set<String> selected) {
+        ObjectWriter writer = writers.get(selected);
+        if (writer == null) {
+            writer = objectMapper.writer(new SimpleFilterProvider()
+                    .addFilter(FILTER_ID, new TopLevelFieldFilter(selected)));
+            // Field sets come from clients, so stop remembering new ones once the cache is full
+            if (writers.size() < MAX_CACHED_WRITERS) {
+                writers.putIfAbsent(selected, writer);
+            }
+        }
+        return writer;
+    }
+
+    private static Set<String> parse(String fields) {
+        Set<String> selected = new TreeSet<>();
+        if (!StringUtils.hasText(fields)) {
+            return selected;
+        }
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty() && selected.size() < MAX_FIELDS) {
+                selected.add(name);
+            }
+        }
+        return Set.copyOf(selected);
+    }
+
+    private static class TopLevelFieldFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> fields;
+
+        TopLevelFieldFilter(Set<String> fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (fields.contains(writer.getName()) || !isTopLevel(generator.getOutputContext())) {
+                writer.serializeAsField(pojo, generator, provider);
+            } else if (!generator.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, generator, provider);
+            }
+        }
+
+        // The object being written is the response itself or an element of a top-level list
+        private static boolean isTopLevel(JsonStreamContext objectContext) {
+            JsonStreamContext parent = objectContext.getParent();
+            return parent == null || parent.inRoot()
+                    || (parent.inArray() && parent.getParent() != null && parent.getParent().inRoot());
+        }
+    }
+}
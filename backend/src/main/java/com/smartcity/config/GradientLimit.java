@@ -0,0 +1,107 @@
+package com.smartcity.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit learned from latency, following the gradient algorithm of Netflix's
+ * concurrency-limits library. Each completed request is compared with a long-term average
+ * latency: while requests are not slower than tolerance times the average the limit grows by
+ * about sqrt(limit), and once they are (requests queueing for the database) it shrinks in
+ * proportion, by at most half per sample before smoothing. Requests that fail with a server
+ * error cut the limit by 10%.
+ *
+ * The limit only grows while at least half of it is in use, so a quiet lane does not drift up
+ * to the maximum and then let a burst through.
+ */
+final class GradientLimit {
+
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRttNanos;
+    private long samples;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot and returns the number of requests in flight including this one, or -1 when
+     * the lane is at its limit.
+     */
+    int tryAcquire() {
+        int current = inflight.incrementAndGet();
+        if (current > (int) limit) {
+            inflight.decrementAndGet();
+            rejected.increment();
+            return -1;
+        }
+        accepted.increment();
+        return current;
+    }
+
+    void release(int inflightAtStart, long rttNanos, boolean failed) {
+        inflight.decrementAndGet();
+        if (failed) {
+            dropped.increment();
+        }
+        update(inflightAtStart, Math.max(1, rttNanos), failed);
+    }
+
+    private synchronized void update(int inflightAtStart, long rttNanos, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            return;
+        }
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_ALPHA;
+        // After a slow period the average would stay high for a long time; let it catch up
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        double current = limit;
+        if (inflightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + target * smoothing));
+    }
+
+    synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("limit", (int) limit);
+        statistics.put("inflight", inflight.get());
+        statistics.put("longRttMs", Math.round(longRttNanos / TimeUnit.MILLISECONDS.toNanos(1) * 10) / 10.0);
+        statistics.put("accepted", accepted.sum());
+        statistics.put("rejected", rejected.sum());
+        statistics.put("serverErrors", dropped.sum());
+        return statistics;
+    }
+}
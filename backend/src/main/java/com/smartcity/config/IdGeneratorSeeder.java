@@ -0,0 +1,60 @@
+package com.smartcity.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Complaint and notification ids come from pooled blocks in the id_generators table so that
+ * Hibernate can batch their inserts. Tables filled through AUTO_INCREMENT before that switch
+ * would collide with a generator starting from 0 (which is what schema update inserts), so at
+ * startup each generator is moved past the current maximum id when it lags behind it.
+ * Deployments that manage the schema with Flyway do this in a migration instead.
+ */
+@Component
+@ConditionalOnProperty(name = "id-generators.seed-on-startup", havingValue = "true", matchIfMissing = true)
+public class IdGeneratorSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorSeeder.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String> GENERATED_TABLES = List.of("complaints", "notifications");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory guarantees the schema has been created first.
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        for (String table : GENERATED_TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out (next_val - allocationSize, next_val] for the next block.
+            long minimumNextVal = (maxId == null ? 0 : maxId) + ALLOCATION_SIZE;
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                    minimumNextVal, table, minimumNextVal);
+            if (updated == 0) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, table);
+                if (existing != null && existing > 0) {
+                    continue;
+                }
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)",
+                        table, minimumNextVal);
+            }
+            logger.info("Moved id generator '{}' past existing max id {}", table, maxId);
+        }
+    }
+}
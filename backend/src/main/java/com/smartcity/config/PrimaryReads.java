@@ -0,0 +1,44 @@
+package com.smartcity.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose result is remembered or acted on by someone other than the writer, such as
+ * version stamps and cursors, against the primary. Read-your-writes pinning only covers the
+ * caller who wrote; a replica that lags behind another caller's write would put stale state
+ * back into these caches.
+ *
+ * The work gets a transaction of its own, so it never reuses a replica connection an enclosing
+ * read-only transaction has already opened.
+ */
+@Component
+public class PrimaryReads {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T call(Supplier<T> work) {
+        boolean previous = ReadWriteRoutingDataSource.requirePrimary();
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            ReadWriteRoutingDataSource.restorePrimary(previous);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.smartcity.config;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs a repeated event at most once per interval per key, so a flood of the same failure
+ * (expired tokens, forged signatures, unauthenticated calls) costs a map lookup per request
+ * instead of a log line. The next line written for a key says how many were suppressed since
+ * the previous one. Keys must come from a small fixed set (a reason, never a token or client
+ * address); past MAX_KEYS the remaining keys share one bucket.
+ */
+public final class RateLimitedLog {
+
+    private static final int MAX_KEYS = 256;
+
+    private static final String OVERFLOW_KEY = "other";
+
+    private final Logger logger;
+
+    private final long intervalNanos;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private static final class Window {
+        final AtomicLong nextAllowedAt = new AtomicLong(Long.MIN_VALUE);
+        final LongAdder suppressed = new LongAdder();
+    }
+
+    public RateLimitedLog(Logger logger, long intervalMillis) {
+        this.logger = logger;
+        this.intervalNanos = intervalMillis * 1_000_000;
+    }
+
+    public void warn(String key, String format, Object... args) {
+        log(Level.WARN, key, format, args);
+    }
+
+    public void info(String key, String format, Object... args) {
+        log(Level.INFO, key, format, args);
+    }
+
+    public void log(Level level, String key, String format, Object... args) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        Window window = window(key);
+        long now = System.nanoTime();
+        long allowedAt = window.nextAllowedAt.get();
+        if ((allowedAt != Long.MIN_VALUE && now - allowedAt < 0)
+                || !window.nextAllowedAt.compareAndSet(allowedAt, now + intervalNanos)) {
+            window.suppressed.increment();
+            return;
+        }
+        long suppressed = window.suppressed.sumThenReset();
+        if (suppressed > 0) {
+            logger.atLevel(level).log(format + " (" + suppressed + " similar suppressed)", args);
+        } else {
+            logger.atLevel(level).log(format, args);
+        }
+    }
+
+    private Window window(String key) {
+        Window window = windows.get(key);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= MAX_KEYS) {
+            return windows.computeIfAbsent(OVERFLOW_KEY, k -> new Window());
+        }
+        return windows.computeIfAbsent(key, k -> new Window());
+    }
+}
@@ -0,0 +1,125 @@
+package com.smartcity.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else to the
+ * primary; without a replica everything goes to the primary. Read-only transactions of the
+ * ANALYTICS traffic class use the analytics pool when there is one, and reads run through
+ * PrimaryReads always use the primary. It must sit behind a LazyConnectionDataSourceProxy:
+ * the transaction manager asks for a connection before the read-only flag of the new
+ * transaction is published, and the proxy defers that lookup until the first statement runs.
+ * Hibernate must release the connection after each transaction as well; with open-in-view it
+ * would otherwise hand the first transaction's connection to every later one in the request.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    enum Route {
+        PRIMARY,
+        REPLICA,
+        ANALYTICS
+    }
+
+    private final HikariDataSource primary;
+
+    private final HikariDataSource replica;
+
+    private final HikariDataSource analytics;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    // Set by PrimaryReads around reads that must not see a lagging replica
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica, HikariDataSource analytics,
+                                      ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.replica = replica;
+        this.analytics = analytics;
+        this.readYourWritesTracker = readYourWritesTracker;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        if (replica != null) {
+            targets.put(Route.REPLICA, replica);
+        }
+        if (analytics != null) {
+            targets.put(Route.ANALYTICS, analytics);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    static boolean requirePrimary() {
+        boolean previous = PRIMARY_REQUIRED.get() != null;
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restorePrimary(boolean previous) {
+        if (!previous) {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return Route.PRIMARY;
+        }
+        if (analytics != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TrafficBulkheads.currentTrafficClass() == TrafficBulkheads.TrafficClass.ANALYTICS) {
+            return Route.ANALYTICS;
+        }
+        if (replica == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        String caller = readYourWritesTracker.currentCaller();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return readYourWritesTracker.isPinnedToPrimary(caller) ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (caller != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWritesTracker.recordWrite(caller);
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Returns the connection pools by name.
+     */
+    public Map<String, HikariDataSource> getPools() {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        pools.put(primary.getPoolName(), primary);
+        if (replica != null) {
+            pools.put(replica.getPoolName(), replica);
+        }
+        if (analytics != null) {
+            pools.put(analytics.getPoolName(), analytics);
+        }
+        return pools;
+    }
+
+    // The primary pool is a bean of its own and is closed by the container.
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+        if (analytics != null) {
+            analytics.close();
+        }
+    }
+}
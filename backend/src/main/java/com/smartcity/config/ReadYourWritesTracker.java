@@ -0,0 +1,72 @@
+package com.smartcity.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who committed a write recently so that their following read-only transactions
+ * stay on the primary until the replica has had time to catch up. Callers are identified by
+ * their username, or by client address before they have logged in (signup followed by login).
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    @Value("${datasource.replica.read-your-writes-ms:5000}")
+    private long stickinessMillis;
+
+    public String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            String address = forwardedFor != null ? forwardedFor.split(",")[0].trim() : request.getRemoteAddr();
+            return "ip:" + address;
+        }
+        return null;
+    }
+
+    public void recordWrite(String caller) {
+        if (caller != null) {
+            pinnedUntil.put(caller, System.currentTimeMillis() + stickinessMillis);
+        }
+    }
+
+    public boolean isPinnedToPrimary(String caller) {
+        if (caller == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(caller);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            pinnedUntil.remove(caller, until);
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until < now);
+    }
+}
@@ -0,0 +1,220 @@
+package com.smartcity.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures API requests against a per-endpoint budget: SQL statements, bytes allocated and
+ * latency. Budgets come from request-budgets.json, keyed by method and route pattern (e.g.
+ * "GET /api/complaints/{id}"), with defaults for endpoints not listed. A request over budget is
+ * logged with the budget next to the actual figures, and the counters are served from
+ * /api/admin/request-budgets.
+ *
+ * Off by default: the budgets are enforced by the integration tests, and a deployment only
+ * turns this on to check a staging environment. Statements and allocation of work handed to
+ * the dashboard pool are charged to the request; async thumbnails and imports are not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class RequestBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestBudgetFilter.class);
+
+    @Value("${request-budget.enabled:false}")
+    private boolean enabled;
+
+    @Value("${request-budget.file:classpath:request-budgets.json}")
+    private Resource budgetFile;
+
+    @Value("${request-budget.default-max-statements:20}")
+    private int defaultMaxStatements;
+
+    @Value("${request-budget.default-max-allocated-kb:32768}")
+    private long defaultMaxAllocatedKb;
+
+    @Value("${request-budget.default-max-millis:2000}")
+    private long defaultMaxMillis;
+
+    // The first requests to an endpoint pay for class loading and JIT, so they are not checked
+    @Value("${request-budget.warmup-requests:1}")
+    private int warmupRequests;
+
+    private volatile Map<String, Budget> budgets;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    // Keyed by route pattern; a slow database makes every request over budget at once
+    private final RateLimitedLog violationLog = new RateLimitedLog(logger, 10_000);
+
+    public record Budget(Integer maxStatements, Long maxAllocatedKb, Long maxMillis) {
+    }
+
+    private static final class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder measured = new LongAdder();
+        final LongAdder violations = new LongAdder();
+        final LongAdder totalStatements = new LongAdder();
+        final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        final LongAdder totalAllocatedBytes = new LongAdder();
+        final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+        final LongAdder totalMillis = new LongAdder();
+        final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+        volatile String lastViolation;
+    }
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        // Called once by Spring and again when the servlet container initializes the filter
+        if (budgets != null) {
+            return;
+        }
+        if (!budgetFile.exists()) {
+            budgets = Map.of();
+            logger.info("No request budget file at {}, using defaults for every endpoint", budgetFile);
+            return;
+        }
+        try (InputStream in = budgetFile.getInputStream()) {
+            budgets = new ObjectMapper().readValue(in, new TypeReference<TreeMap<String, Budget>>() {
+            });
+        } catch (IOException e) {
+            throw new ServletException("Could not read request budgets from " + budgetFile, e);
+        }
+        logger.info("Loaded {} request budgets from {}", budgets.size(), budgetFile);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        RequestMeter meter = RequestMeter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestMeter.stop();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        int statements = meter.getStatements();
+        long allocated = meter.getAllocatedBytes();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            // Rejected before reaching a handler (unauthenticated, unknown path)
+            return;
+        }
+        record(request.getMethod() + " " + pattern, statements, allocated, millis, response.getStatus());
+    }
+
+    private void record(String endpoint, int statements, long allocatedBytes, long millis, int status) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, key -> new EndpointStats());
+        endpointStats.requests.increment();
+        if (endpointStats.requests.sum() <= warmupRequests) {
+            return;
+        }
+        endpointStats.measured.increment();
+        endpointStats.totalStatements.add(statements);
+        endpointStats.maxStatements.accumulate(statements);
+        endpointStats.totalAllocatedBytes.add(allocatedBytes);
+        endpointStats.maxAllocatedBytes.accumulate(allocatedBytes);
+        endpointStats.totalMillis.add(millis);
+        endpointStats.maxMillis.accumulate(millis);
+
+        Budget budget = budgetFor(endpoint);
+        StringBuilder diff = new StringBuilder();
+        appendIfOver(diff, "statements", statements, budget.maxStatements());
+        appendIfOver(diff, "allocatedKb", allocatedBytes / 1024, budget.maxAllocatedKb());
+        appendIfOver(diff, "millis", millis, budget.maxMillis());
+        if (!diff.isEmpty()) {
+            endpointStats.violations.increment();
+            endpointStats.lastViolation = diff.toString();
+            violationLog.warn(endpoint, "Request budget exceeded for {} (status {}): {}", endpoint, status, diff);
+        }
+    }
+
+    private static void appendIfOver(StringBuilder diff, String name, long actual, long budget) {
+        if (actual > budget) {
+            if (!diff.isEmpty()) {
+                diff.append(", ");
+            }
+            diff.append(name).append(' ').append(actual).append(" > budget ").append(budget)
+                    .append(" (+").append(actual - budget).append(')');
+        }
+    }
+
+    private Budget budgetFor(String endpoint) {
+        Budget budget = budgets.get(endpoint);
+        if (budget == null) {
+            return new Budget(defaultMaxStatements, defaultMaxAllocatedKb, defaultMaxMillis);
+        }
+        return new Budget(
+                budget.maxStatements() != null ? budget.maxStatements() : defaultMaxStatements,
+                budget.maxAllocatedKb() != null ? budget.maxAllocatedKb() : defaultMaxAllocatedKb,
+                budget.maxMillis() != null ? budget.maxMillis() : defaultMaxMillis);
+    }
+
+    /**
+     * Returns the observed figures and budget of every endpoint that has served a request.
+     */
+    public List<Map<String, Object>> getStatistics() {
+        return new TreeMap<>(stats).entrySet().stream().map(entry -> {
+            EndpointStats endpointStats = entry.getValue();
+            long measured = endpointStats.measured.sum();
+            Budget budget = budgetFor(entry.getKey());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey());
+            row.put("requests", endpointStats.requests.sum());
+            row.put("measured", measured);
+            row.put("violations", endpointStats.violations.sum());
+            row.put("lastViolation", endpointStats.lastViolation);
+            row.put("avgStatements", average(endpointStats.totalStatements.sum(), measured));
+            row.put("maxStatements", endpointStats.maxStatements.get());
+            row.put("budgetStatements", budget.maxStatements());
+            row.put("avgAllocatedKb", average(endpointStats.totalAllocatedBytes.sum() / 1024, measured));
+            row.put("maxAllocatedKb", endpointStats.maxAllocatedBytes.get() / 1024);
+            row.put("budgetAllocatedKb", budget.maxAllocatedKb());
+            row.put("avgMillis", average(endpointStats.totalMillis.sum(), measured));
+            row.put("maxMillis", endpointStats.maxMillis.get());
+            row.put("budgetMillis", budget.maxMillis());
+            return row;
+        }).toList();
+    }
+
+    public long getTotalViolations() {
+        return stats.values().stream().mapToLong(endpointStats -> endpointStats.violations.sum()).sum();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static double average(long total, long count) {
+        return count == 0 ? 0 : Math.round(total * 10.0 / count) / 10.0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.smartcity.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * SQL statements and heap allocation charged to one request. RequestBudgetFilter opens a meter
+ * around each request; StatementCountingDataSource charges every JDBC statement executed while
+ * a meter is open on the thread, whether it comes from Hibernate or a JdbcTemplate. Work a
+ * request hands to a pool is charged to it when the task is wrapped with {@link #wrap}.
+ */
+public final class RequestMeter {
+
+    private static final ThreadLocal<RequestMeter> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final Thread owner = Thread.currentThread();
+    private final long allocatedBefore = currentThreadAllocatedBytes();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong otherThreadsAllocatedBytes = new AtomicLong();
+
+    private RequestMeter() {
+    }
+
+    public static RequestMeter start() {
+        RequestMeter meter = new RequestMeter();
+        CURRENT.set(meter);
+        return meter;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void statementExecuted() {
+        RequestMeter meter = CURRENT.get();
+        if (meter != null) {
+            meter.statements.incrementAndGet();
+        }
+    }
+
+    /**
+     * Charges the statements and allocation of {@code work} to the meter open on the calling
+     * thread, wherever the work ends up running. Returns {@code work} itself when no meter is open.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> work) {
+        RequestMeter meter = CURRENT.get();
+        if (meter == null) {
+            return work;
+        }
+        return () -> {
+            if (Thread.currentThread() == meter.owner) {
+                // Run by the caller itself (CallerRunsPolicy), already measured
+                return work.get();
+            }
+            RequestMeter previous = CURRENT.get();
+            CURRENT.set(meter);
+            long before = currentThreadAllocatedBytes();
+            try {
+                return work.get();
+            } finally {
+                if (before >= 0) {
+                    meter.otherThreadsAllocatedBytes.addAndGet(currentThreadAllocatedBytes() - before);
+                }
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    /**
+     * Bytes allocated by the request thread since start() plus those allocated by wrapped work
+     * that has finished on other threads, or 0 when the JVM does not measure allocation.
+     */
+    public long getAllocatedBytes() {
+        if (allocatedBefore < 0) {
+            return 0;
+        }
+        return currentThreadAllocatedBytes() - allocatedBefore + otherThreadsAllocatedBytes.get();
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartcity.config;
+
+import com.smartcity.exception.BulkheadFullException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps heavy admin reports from stalling citizen traffic. Work run in the ANALYTICS class
+ * needs one of a few permits, gets its connections from a small pool of its own (on the
+ * replica when there is one) and runs in a read-only transaction whose timeout Hibernate turns
+ * into a JDBC statement timeout. Everything else is INTERACTIVE and uses the regular pools.
+ *
+ * Reports run on the request thread; the permits bound how many Tomcat threads they can hold,
+ * which is what a separate executor would buy without the context hand-off.
+ */
+@Component
+public class TrafficBulkheads {
+
+    private static final ThreadLocal<TrafficClass> CURRENT = new ThreadLocal<>();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Value("${bulkhead.analytics.max-concurrent:2}")
+    private int analyticsMaxConcurrent;
+
+    @Value("${bulkhead.analytics.max-wait-ms:500}")
+    private long analyticsMaxWaitMs;
+
+    @Value("${bulkhead.analytics.statement-timeout-seconds:30}")
+    private int analyticsStatementTimeoutSeconds;
+
+    @Value("${bulkhead.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final Map<TrafficClass, Bulkhead> bulkheads = new EnumMap<>(TrafficClass.class);
+
+    private final Map<TrafficClass, TransactionTemplate> transactionTemplates = new EnumMap<>(TrafficClass.class);
+
+    public enum TrafficClass {
+        // Citizen requests and everything not marked otherwise
+        INTERACTIVE,
+        // Admin reports that read whole tables
+        ANALYTICS
+    }
+
+    @PostConstruct
+    public void init() {
+        Bulkhead analytics = new Bulkhead(analyticsMaxConcurrent, analyticsMaxWaitMs, analyticsStatementTimeoutSeconds);
+        bulkheads.put(TrafficClass.ANALYTICS, analytics);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout(analytics.getStatementTimeoutSeconds());
+        transactionTemplates.put(TrafficClass.ANALYTICS, template);
+    }
+
+    /**
+     * Returns the traffic class of the work running on this thread.
+     */
+    public static TrafficClass currentTrafficClass() {
+        TrafficClass trafficClass = CURRENT.get();
+        return trafficClass != null ? trafficClass : TrafficClass.INTERACTIVE;
+    }
+
+    /**
+     * Runs read-only work in the given class, or throws BulkheadFullException when no permit
+     * frees up within the class's maximum wait.
+     */
+    public <T> T call(TrafficClass trafficClass, Supplier<T> work) {
+        Bulkhead bulkhead = bulkheads.get(trafficClass);
+        if (bulkhead == null) {
+            return work.get();
+        }
+        if (!bulkhead.tryAcquire()) {
+            throw new BulkheadFullException(trafficClass.name(), retryAfterSeconds);
+        }
+        TrafficClass previous = CURRENT.get();
+        CURRENT.set(trafficClass);
+        try {
+            return transactionTemplates.get(trafficClass).execute(status -> work.get());
+        } catch (QueryTimeoutException | TransactionTimedOutException e) {
+            bulkhead.recordTimeout();
+            throw e;
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            bulkhead.release();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> classes = new LinkedHashMap<>();
+        bulkheads.forEach((trafficClass, bulkhead) -> classes.put(trafficClass.name(), bulkhead.getStatistics()));
+        Map<String, Object> pools = new LinkedHashMap<>();
+        readWriteRoutingDataSource.getPools().forEach((name, pool) -> pools.put(name, poolStatistics(pool)));
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("bulkheads", classes);
+        statistics.put("pools", pools);
+        return statistics;
+    }
+
+    private static Map<String, Object> poolStatistics(HikariDataSource pool) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("maximumPoolSize", pool.getMaximumPoolSize());
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        // Null until the pool has handed out its first connection
+        if (bean != null) {
+            statistics.put("active", bean.getActiveConnections());
+            statistics.put("idle", bean.getIdleConnections());
+            statistics.put("threadsAwaitingConnection", bean.getThreadsAwaitingConnection());
+        }
+        return statistics;
+    }
+}
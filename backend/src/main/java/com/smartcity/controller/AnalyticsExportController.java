@@ -0,0 +1,39 @@
+package com.smartcity.controller;
+
+import com.smartcity.dto.ExportManifest;
+import com.smartcity.dto.MessageResponse;
+import com.smartcity.service.AnalyticsExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics-export")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AnalyticsExportController {
+
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ExportManifest>> getManifests() {
+        return ResponseEntity.ok(analyticsExportService.getManifests());
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runExport(@RequestParam(defaultValue = "false") boolean full) {
+        Map<String, Long> exported = analyticsExportService.export(full);
+        if (exported == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: Analytics export is already running!"));
+        }
+        return ResponseEntity.ok(exported);
+    }
+}
@@ -0,0 +1,140 @@
+package com.smartcity.controller;
+
+import com.smartcity.exception.ResourceNotFoundException;
+import com.smartcity.service.AttachmentStorage;
+import com.smartcity.service.ComplaintAttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves attachment bytes by content hash. A hash always names the same bytes, so responses
+ * are cacheable forever. Where Tomcat supports sendfile the kernel copies the file to the
+ * socket; otherwise FileChannel.transferTo is used. Single byte ranges are honoured.
+ */
+@RestController
+@RequestMapping("/api/attachments")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AttachmentController {
+
+    // Admins see the photos of their city's complaints, citizens those of their own complaints
+    private static final String READ_ACCESS = "(hasRole('ADMIN') and @ownership.isAttachmentInCity(#hash))"
+            + " or (hasRole('CITIZEN') and @ownership.ownsAttachment(authentication, #hash))";
+
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ComplaintAttachmentService complaintAttachmentService;
+
+    @Autowired
+    private AttachmentStorage attachmentStorage;
+
+    @GetMapping("/{hash}")
+    @PreAuthorize(READ_ACCESS)
+    public void getAttachment(@PathVariable String hash, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        if (!AttachmentStorage.isValidHash(hash)) {
+            throw new ResourceNotFoundException("Attachment", "hash", hash);
+        }
+        String contentType = complaintAttachmentService.getContentType(hash);
+        serve(attachmentStorage.pathFor(hash), contentType, hash, request, response);
+    }
+
+    @GetMapping("/{hash}/thumbnail")
+    @PreAuthorize(READ_ACCESS)
+    public void getThumbnail(@PathVariable String hash, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Path thumbnail = AttachmentStorage.isValidHash(hash) ? attachmentStorage.thumbnailPathFor(hash) : null;
+        if (thumbnail == null || !Files.exists(thumbnail)) {
+            throw new ResourceNotFoundException("Thumbnail", "hash", hash);
+        }
+        serve(thumbnail, "image/jpeg", hash + "-thumb", request, response);
+    }
+
+    private void serve(Path file, String contentType, String etagValue, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Attachment", "hash", etagValue);
+        }
+        String etag = "\"" + etagValue + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = Files.size(file);
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multi-range requests are answered with the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                if (size == 0 || range.getRangeStart(size) >= size) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(size == 0 ? 0 : length);
+        if (size == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
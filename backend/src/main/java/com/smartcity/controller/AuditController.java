@@ -0,0 +1,63 @@
+package com.smartcity.controller;
+
+import com.smartcity.dto.AuditEntry;
+import com.smartcity.dto.MessageResponse;
+import com.smartcity.security.TenantContext;
+import com.smartcity.service.AuditAction;
+import com.smartcity.service.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/audit")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AuditController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAuditEntries(
+            @RequestParam(required = false) Long actorId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: limit must be between 1 and " + MAX_LIMIT + "!"));
+        }
+        if (entityId != null && entityType == null) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: entityId requires entityType!"));
+        }
+        // Admins only see the actions taken in their own city
+        AuditLog.Query query = new AuditLog.Query(TenantContext.getCurrentCity(), actorId, entityType, entityId,
+                action, from != null ? toMillis(from) : Long.MIN_VALUE,
+                to != null ? toMillis(to) : Long.MAX_VALUE);
+        List<AuditEntry> entries = auditLog.query(query, limit);
+        return ResponseEntity.ok(entries);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getAuditStatistics() {
+        return ResponseEntity.ok(auditLog.getStatistics());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -28,6 +30,14 @@ public class AuthController {
         }
     }
 
+    @GetMapping("/email-available")
+    public ResponseEntity<?> isEmailAvailable(@RequestParam String email) {
+        if (email.isBlank()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is required!"));
+        }
+        return ResponseEntity.ok(Map.of("email", email, "available", authService.isEmailAvailable(email)));
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
         try {
@@ -0,0 +1,24 @@
+package com.smartcity.controller;
+
+import com.smartcity.config.TrafficBulkheads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/bulkheads")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class BulkheadController {
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBulkheads() {
+        return ResponseEntity.ok(trafficBulkheads.getStatistics());
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartcity.controller;
+
+import com.smartcity.service.CacheInvalidationBus;
+import com.smartcity.service.EmailAvailabilityService;
+import com.smartcity.service.UserVersionStamps;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class CacheStatisticsController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private EmailAvailabilityService emailAvailabilityService;
+
+    @Autowired
+    private UserVersionStamps userVersionStamps;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, regionSummary(region));
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        body.put("regions", regions);
+        body.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        body.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        body.put("queryCachePuts", statistics.getQueryCachePutCount());
+        body.put("invalidationBus", cacheInvalidationBus.getStatistics());
+        body.put("emailFilter", emailAvailabilityService.getStatistics());
+        body.put("userStamps", userVersionStamps.getStatistics());
+        return ResponseEntity.ok(body);
+    }
+
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> evictAll() {
+        entityManagerFactory.getCache().evictAll();
+        return ResponseEntity.ok().build();
+    }
+
+    private Map<String, Object> regionSummary(CacheRegionStatistics region) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("hits", region.getHitCount());
+        summary.put("misses", region.getMissCount());
+        summary.put("puts", region.getPutCount());
+        return summary;
+    }
+}
@@ -1,7 +1,9 @@
 package com.smartcity.controller;
 
+import com.smartcity.config.FieldSelectionWriter;
 import com.smartcity.entity.CityNews;
 import com.smartcity.service.CityNewsService;
+import com.smartcity.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,15 +19,25 @@ public class CityNewsController {
     @Autowired
     private CityNewsService cityNewsService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private FieldSelectionWriter fieldSelectionWriter;
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CityNews> createNews(@RequestBody CityNews cityNews) {
-        return ResponseEntity.ok(cityNewsService.createNews(cityNews));
+    public ResponseEntity<?> createNews(@RequestBody CityNews cityNews,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "news.create", cityNews,
+                () -> ResponseEntity.ok(cityNewsService.createNews(cityNews)));
     }
     
     @GetMapping
-    public ResponseEntity<List<CityNews>> getAllNews() {
-        return ResponseEntity.ok(cityNewsService.getAllNews());
+    public ResponseEntity<?> getAllNews(@RequestParam(required = false) String view,
+                                        @RequestParam(required = false) String fields) {
+        List<?> news = "summary".equals(view) ? cityNewsService.getAllNewsSummaries() : cityNewsService.getAllNews();
+        return fieldSelectionWriter.ok(news, fields);
     }
     
     @GetMapping("/{id}")
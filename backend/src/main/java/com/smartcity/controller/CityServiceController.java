@@ -2,6 +2,7 @@ package com.smartcity.controller;
 
 import com.smartcity.entity.CityService;
 import com.smartcity.service.CityServiceService;
+import com.smartcity.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,10 +18,15 @@ public class CityServiceController {
     @Autowired
     private CityServiceService cityServiceService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CityService> createCityService(@RequestBody CityService cityService) {
-        return ResponseEntity.ok(cityServiceService.createCityService(cityService));
+    public ResponseEntity<?> createCityService(@RequestBody CityService cityService,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "city-services.create", cityService,
+                () -> ResponseEntity.ok(cityServiceService.createCityService(cityService)));
     }
     
     @GetMapping
@@ -0,0 +1,58 @@
+package com.smartcity.controller;
+
+import com.smartcity.config.TrafficBulkheads;
+import com.smartcity.config.TrafficBulkheads.TrafficClass;
+import com.smartcity.entity.ArchivedComplaint;
+import com.smartcity.service.ComplaintArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/complaints/archive")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ComplaintArchiveController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ComplaintArchiveService complaintArchiveService;
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<ArchivedComplaint>> getArchivedComplaints(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(trafficBulkheads.call(TrafficClass.ANALYTICS,
+                () -> complaintArchiveService.getArchivedComplaints(month, pageRequest(page, size))));
+    }
+
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.isSelf(authentication, #userId))")
+    public ResponseEntity<Page<ArchivedComplaint>> getArchivedComplaintsByUserId(@PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(complaintArchiveService.getArchivedComplaintsByUserId(userId, pageRequest(page, size)));
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> runArchival() {
+        return ResponseEntity.ok(Map.of("archived", complaintArchiveService.archiveResolvedComplaints()));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "updatedAt"));
+    }
+}
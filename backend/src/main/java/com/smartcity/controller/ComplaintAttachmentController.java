@@ -0,0 +1,34 @@
+package com.smartcity.controller;
+
+import com.smartcity.entity.ComplaintAttachment;
+import com.smartcity.service.ComplaintAttachmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/complaints/{complaintId}/attachments")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ComplaintAttachmentController {
+
+    @Autowired
+    private ComplaintAttachmentService complaintAttachmentService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.ownsComplaint(authentication, #complaintId))")
+    public ResponseEntity<ComplaintAttachment> addAttachment(@PathVariable Long complaintId,
+                                                             @RequestParam("file") MultipartFile file) {
+        return ResponseEntity.ok(complaintAttachmentService.addAttachment(complaintId, file));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.ownsComplaintOrArchived(authentication, #complaintId))")
+    public ResponseEntity<List<ComplaintAttachment>> getAttachments(@PathVariable Long complaintId) {
+        return ResponseEntity.ok(complaintAttachmentService.getAttachments(complaintId));
+    }
+}
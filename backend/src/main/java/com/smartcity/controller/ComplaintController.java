@@ -1,11 +1,19 @@
 package com.smartcity.controller;
 
+import com.smartcity.config.FieldSelectionWriter;
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.config.TrafficBulkheads;
+import com.smartcity.config.TrafficBulkheads.TrafficClass;
 import com.smartcity.entity.Complaint;
+import com.smartcity.service.ComplaintHistoryService;
 import com.smartcity.service.ComplaintService;
+import com.smartcity.service.IdempotencyService;
+import com.smartcity.service.UserVersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -15,26 +23,85 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ComplaintController {
 
+    private static final int MAX_TIMELINE_PAGE_SIZE = 200;
+
     @Autowired
     private ComplaintService complaintService;
 
+    @Autowired
+    private ComplaintHistoryService complaintHistoryService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private FieldSelectionWriter fieldSelectionWriter;
+
+    @Autowired
+    private UserVersionStamps userVersionStamps;
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
     @PostMapping
     @PreAuthorize("hasRole('CITIZEN')")
-    public ResponseEntity<Complaint> createComplaint(@RequestBody Complaint complaint,
-            @RequestParam Long userId) {
-        return ResponseEntity.ok(complaintService.createComplaint(complaint, userId));
+    public ResponseEntity<?> createComplaint(@RequestBody Complaint complaint,
+            @RequestParam Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "complaints.create:" + userId, complaint,
+                () -> ResponseEntity.ok(complaintService.createComplaint(complaint, userId)));
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('CITIZEN')")
+    public ResponseEntity<?> createComplaints(@RequestBody List<Complaint> complaints,
+            @RequestParam Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "complaints.batch:" + userId, complaints,
+                () -> ResponseEntity.ok(complaintService.createComplaints(complaints, userId)));
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Complaint>> getAllComplaints() {
-        return ResponseEntity.ok(complaintService.getAllComplaints());
+    public ResponseEntity<?> getAllComplaints(@RequestParam(required = false) String view,
+                                              @RequestParam(required = false) String fields) {
+        List<?> complaints = trafficBulkheads.call(TrafficClass.ANALYTICS, () -> "summary".equals(view)
+                ? complaintService.getAllComplaintSummaries()
+                : complaintService.getAllComplaints());
+        return fieldSelectionWriter.ok(complaints, fields);
     }
 
     @GetMapping("/user/{userId}")
-    @PreAuthorize("hasRole('CITIZEN') or hasRole('ADMIN')")
-    public ResponseEntity<List<Complaint>> getComplaintsByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(complaintService.getComplaintsByUserId(userId));
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.isSelf(authentication, #userId))")
+    public ResponseEntity<?> getComplaintsByUserId(@PathVariable Long userId,
+                                                   @RequestParam(required = false) String view,
+                                                   @RequestParam(required = false) String fields,
+                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(userVersionStamps.getETag(UserVersionStamps.Scope.COMPLAINTS, userId))) {
+            return null;
+        }
+        // Same source as the ETag, so a lagging replica cannot pin an old body to a new tag
+        List<?> complaints = primaryReads.call(() -> "summary".equals(view)
+                ? complaintService.getComplaintSummariesByUserId(userId)
+                : complaintService.getComplaintsByUserId(userId));
+        return fieldSelectionWriter.ok(complaints, fields);
+    }
+
+    @GetMapping("/timelines")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRecentTimelines(@RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(trafficBulkheads.call(TrafficClass.ANALYTICS, () -> complaintHistoryService
+                .getRecentTimelines(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_TIMELINE_PAGE_SIZE))));
+    }
+
+    @GetMapping("/{id}/timeline")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.ownsComplaintOrArchived(authentication, #id))")
+    public ResponseEntity<?> getTimeline(@PathVariable Long id) {
+        return ResponseEntity.ok(complaintHistoryService.getTimeline(id));
     }
 
     @GetMapping("/{id}")
@@ -45,9 +112,11 @@ public class ComplaintController {
 
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Complaint> updateComplaintStatus(@PathVariable Long id,
-            @RequestBody Map<String, String> statusMap) {
+    public ResponseEntity<?> updateComplaintStatus(@PathVariable Long id,
+            @RequestBody Map<String, String> statusMap,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Complaint.Status status = Complaint.Status.valueOf(statusMap.get("status"));
-        return ResponseEntity.ok(complaintService.updateComplaintStatus(id, status));
+        return idempotencyService.execute(idempotencyKey, "complaints.status:" + id, statusMap,
+                () -> ResponseEntity.ok(complaintService.updateComplaintStatus(id, status)));
     }
 }
@@ -0,0 +1,24 @@
+package com.smartcity.controller;
+
+import com.smartcity.config.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/concurrency-limits")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ConcurrencyLimitController {
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getConcurrencyLimits() {
+        return ResponseEntity.ok(concurrencyLimitFilter.getStatistics());
+    }
+}
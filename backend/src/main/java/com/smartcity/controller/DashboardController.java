@@ -0,0 +1,37 @@
+package com.smartcity.controller;
+
+import com.smartcity.dto.DashboardResponse;
+import com.smartcity.security.UserDetailsImpl;
+import com.smartcity.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('CITIZEN') or hasRole('ADMIN')")
+    public ResponseEntity<DashboardResponse> getDashboard(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        boolean admin = userDetails.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        return ResponseEntity.ok(admin
+                ? dashboardService.getAdminDashboard()
+                : dashboardService.getCitizenDashboard(userDetails.getId()));
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> getStatistics() {
+        return ResponseEntity.ok(dashboardService.getStatistics());
+    }
+}
@@ -2,6 +2,7 @@ package com.smartcity.controller;
 
 import com.smartcity.entity.EmergencyService;
 import com.smartcity.service.EmergencyServiceService;
+import com.smartcity.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,10 +18,15 @@ public class EmergencyServiceController {
     @Autowired
     private EmergencyServiceService emergencyServiceService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<EmergencyService> createEmergencyService(@RequestBody EmergencyService emergencyService) {
-        return ResponseEntity.ok(emergencyServiceService.createEmergencyService(emergencyService));
+    public ResponseEntity<?> createEmergencyService(@RequestBody EmergencyService emergencyService,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "emergency-services.create", emergencyService,
+                () -> ResponseEntity.ok(emergencyServiceService.createEmergencyService(emergencyService)));
     }
     
     @GetMapping
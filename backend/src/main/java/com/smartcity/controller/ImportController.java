@@ -0,0 +1,64 @@
+package com.smartcity.controller;
+
+import com.smartcity.dto.MessageResponse;
+import com.smartcity.entity.ImportJob;
+import com.smartcity.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/imports")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startImport(@RequestBody Map<String, String> request) {
+        try {
+            ImportJob.Type type = ImportJob.Type.valueOf(request.getOrDefault("type", "").toUpperCase(Locale.ROOT));
+            String format = request.get("format");
+            ImportJob job = importService.startImport(type, request.getOrDefault("file", ""),
+                    format != null ? ImportJob.Format.valueOf(format.toUpperCase(Locale.ROOT)) : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage() != null && e.getMessage().startsWith("Error:")
+                    ? e.getMessage()
+                    : "Error: type must be USERS or COMPLAINTS and format CSV or NDJSON!";
+            return ResponseEntity.badRequest().body(new MessageResponse(message));
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ImportJob>> getRecentImports() {
+        return ResponseEntity.ok(importService.getRecentImports());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJob> getImport(@PathVariable Long id) {
+        return ResponseEntity.ok(importService.getImport(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJob> resumeImport(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.resumeImport(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJob> cancelImport(@PathVariable Long id) {
+        return ResponseEntity.ok(importService.cancelImport(id));
+    }
+}
@@ -1,11 +1,18 @@
 package com.smartcity.controller;
 
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.config.TrafficBulkheads;
+import com.smartcity.config.TrafficBulkheads.TrafficClass;
+import com.smartcity.dto.BulkNotificationRequest;
 import com.smartcity.entity.Notification;
 import com.smartcity.service.NotificationService;
+import com.smartcity.service.UserVersionStamps;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -17,6 +24,15 @@ public class NotificationController {
     
     @Autowired
     private NotificationService notificationService;
+
+    @Autowired
+    private UserVersionStamps userVersionStamps;
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
+    @Autowired
+    private PrimaryReads primaryReads;
     
     @PostMapping("/{userId}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -26,15 +42,26 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.createNotification(message, userId));
     }
     
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Notification>> createNotifications(@Valid @RequestBody BulkNotificationRequest request) {
+        return ResponseEntity.ok(notificationService.createNotifications(request.getMessage(), request.getUserIds()));
+    }
+    
     @GetMapping("/user/{userId}")
-    @PreAuthorize("hasRole('CITIZEN') or hasRole('ADMIN')")
-    public ResponseEntity<List<Notification>> getNotificationsByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(notificationService.getNotificationsByUserId(userId));
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CITIZEN') and @ownership.isSelf(authentication, #userId))")
+    public ResponseEntity<List<Notification>> getNotificationsByUserId(@PathVariable Long userId,
+                                                                       WebRequest webRequest) {
+        if (webRequest.checkNotModified(userVersionStamps.getETag(UserVersionStamps.Scope.NOTIFICATIONS, userId))) {
+            return null;
+        }
+        // Same source as the ETag, so a lagging replica cannot pin an old body to a new tag
+        return ResponseEntity.ok(primaryReads.call(() -> notificationService.getNotificationsByUserId(userId)));
     }
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Notification>> getAllNotifications() {
-        return ResponseEntity.ok(notificationService.getAllNotifications());
+        return ResponseEntity.ok(trafficBulkheads.call(TrafficClass.ANALYTICS, notificationService::getAllNotifications));
     }
 }
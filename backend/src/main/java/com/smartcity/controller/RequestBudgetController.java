@@ -0,0 +1,36 @@
+package com.smartcity.controller;
+
+import com.smartcity.config.RequestBudgetFilter;
+import com.smartcity.dto.MessageResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/request-budgets")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class RequestBudgetController {
+
+    @Autowired
+    private RequestBudgetFilter requestBudgetFilter;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRequestBudgets() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("violations", requestBudgetFilter.getTotalViolations());
+        body.put("endpoints", requestBudgetFilter.getStatistics());
+        return ResponseEntity.ok(body);
+    }
+
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> resetRequestBudgets() {
+        requestBudgetFilter.reset();
+        return ResponseEntity.ok(new MessageResponse("Request budget statistics reset"));
+    }
+}
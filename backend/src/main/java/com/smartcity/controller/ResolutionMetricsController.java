@@ -0,0 +1,40 @@
+package com.smartcity.controller;
+
+import com.smartcity.dto.MessageResponse;
+import com.smartcity.entity.ResolutionMetric;
+import com.smartcity.service.ResolutionMetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequestMapping("/api/metrics/resolution")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ResolutionMetricsController {
+
+    private static final long MAX_RANGE_DAYS = 366;
+
+    @Autowired
+    private ResolutionMetricsService resolutionMetricsService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getResolutionStatistics(
+            @RequestParam(defaultValue = "RESOLUTION") ResolutionMetric.Metric metric,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Date range must be between 1 and " + MAX_RANGE_DAYS + " days!"));
+        }
+        return ResponseEntity.ok(resolutionMetricsService.getStatistics(metric, category, start, end));
+    }
+}
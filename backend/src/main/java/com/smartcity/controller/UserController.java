@@ -1,8 +1,14 @@
 package com.smartcity.controller;
 
+import com.smartcity.config.FieldSelectionWriter;
+import com.smartcity.config.TrafficBulkheads;
+import com.smartcity.config.TrafficBulkheads.TrafficClass;
+import com.smartcity.dto.MessageResponse;
 import com.smartcity.entity.User;
 import com.smartcity.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -14,17 +20,46 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class UserController {
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FieldSelectionWriter fieldSelectionWriter;
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String view,
+                                         @RequestParam(required = false) String fields) {
+        List<?> users = trafficBulkheads.call(TrafficClass.ANALYTICS,
+                () -> "summary".equals(view) ? userService.getAllUserSummaries() : userService.getAllUsers());
+        return fieldSelectionWriter.ok(users, fields);
+    }
+
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDirectory(@RequestParam(required = false) String q,
+                                          @RequestParam(required = false) User.Role role,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size) {
+        if (!userService.isDirectoryReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(new MessageResponse("Error: User directory is still loading!"));
+        }
+        try {
+            return ResponseEntity.ok(userService.searchDirectory(q, role, cursor,
+                    Math.min(Math.max(size, 1), MAX_DIRECTORY_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor!"));
+        }
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.getUserById(#id).email == authentication.principal.username")
+    @PreAuthorize("hasRole('ADMIN') or @ownership.isSelf(authentication, #id)")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserById(id));
     }
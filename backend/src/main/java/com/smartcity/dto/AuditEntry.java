@@ -0,0 +1,28 @@
+package com.smartcity.dto;
+
+import com.smartcity.service.AuditAction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One record of the admin audit log. actorId is null for actions taken without a signed-in
+ * user (scheduled jobs, imports).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntry {
+
+    private long sequence;
+    private LocalDateTime timestamp;
+    private String cityId;
+    private Long actorId;
+    private String actorEmail;
+    private AuditAction action;
+    private String entityType;
+    private Long entityId;
+    private String detail;
+}
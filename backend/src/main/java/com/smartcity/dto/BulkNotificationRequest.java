@@ -0,0 +1,23 @@
+package com.smartcity.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkNotificationRequest {
+
+    @NotBlank(message = "Message is required")
+    @Size(max = 500, message = "Message must be at most 500 characters")
+    private String message;
+
+    @NotEmpty(message = "At least one user id is required")
+    private List<Long> userIds;
+}
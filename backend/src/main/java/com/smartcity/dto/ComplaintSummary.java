@@ -0,0 +1,24 @@
+package com.smartcity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.smartcity.config.FieldSelectionWriter;
+import com.smartcity.entity.Complaint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+public class ComplaintSummary {
+
+    private Long id;
+    private String title;
+    private String category;
+    private Complaint.Status status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.smartcity.dto;
+
+import com.smartcity.entity.Complaint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stages a complaint went through, oldest first. Each stage starts when the complaint entered
+ * that status; seconds is the time spent in it and is null for the current stage.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintTimeline {
+
+    private Long complaintId;
+    private Complaint.Status status;
+    private List<Stage> stages;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+
+        private Complaint.Status status;
+        private LocalDateTime since;
+        private Long seconds;
+        private Long changedBy;
+    }
+}
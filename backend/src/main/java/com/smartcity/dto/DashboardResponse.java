@@ -0,0 +1,31 @@
+package com.smartcity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartcity.entity.CityService;
+import com.smartcity.entity.EmergencyService;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a dashboard needs on load. Citizens get their own complaints and notifications,
+ * admins get complaint counts per status, the most recent complaints and the user count.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardResponse {
+
+    private List<ComplaintSummary> complaints;
+    private List<NotificationSummary> notifications;
+
+    private Map<String, Long> complaintCounts;
+    private List<ComplaintSummary> recentComplaints;
+    private Long totalUsers;
+
+    private List<NewsSummary> news;
+    private List<CityService> cityServices;
+    private List<EmergencyService> emergencyServices;
+}
@@ -0,0 +1,49 @@
+package com.smartcity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The manifest.json next to an exported table's Parquet files. Partitions are listed oldest
+ * first; a reader that remembers the highest sequence it has loaded only needs the partitions
+ * after it, unless the generation changed, which means the table was exported again in full
+ * and every earlier partition is gone.
+ *
+ * The watermark is where the next run starts: the exclusive upper bound of the last window
+ * for tables exported by timestamp, and the highest exported id for tables exported by id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportManifest {
+
+    private String table;
+    private String format;
+    private String compression;
+    private String watermarkColumn;
+    private String watermark;
+    private int generation;
+    private long nextSequence;
+    private LocalDateTime updatedAt;
+    private List<Partition> partitions = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Partition {
+
+        private long sequence;
+        private String file;
+        private long rows;
+        private long bytes;
+        // Window of watermark values the partition covers
+        private String from;
+        private String to;
+        private LocalDateTime exportedAt;
+    }
+}
@@ -15,12 +15,14 @@ public class JwtResponse {
     private String name;
     private String email;
     private String role;
+    private String cityId;
 
-    public JwtResponse(String token, Long id, String name, String email, String role) {
+    public JwtResponse(String token, Long id, String name, String email, String role, String cityId) {
         this.token = token;
         this.id = id;
         this.name = name;
         this.email = email;
         this.role = role;
+        this.cityId = cityId;
     }
 }
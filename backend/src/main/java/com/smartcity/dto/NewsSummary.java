@@ -0,0 +1,21 @@
+package com.smartcity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.smartcity.config.FieldSelectionWriter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+public class NewsSummary {
+
+    private Long id;
+    private String title;
+    private String imageUrl;
+    private LocalDateTime createdAt;
+}
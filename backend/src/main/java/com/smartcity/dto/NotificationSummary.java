@@ -0,0 +1,17 @@
+package com.smartcity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSummary {
+
+    private Long id;
+    private String message;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.smartcity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Duration quantiles in seconds for one category, or for all of them when category is null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionStats {
+
+    private String category;
+    private long count;
+    private Long p50Seconds;
+    private Long p90Seconds;
+    private Long p99Seconds;
+    private Long maxSeconds;
+}
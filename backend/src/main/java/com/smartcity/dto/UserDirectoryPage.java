@@ -0,0 +1,18 @@
+package com.smartcity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDirectoryPage {
+
+    private List<UserSummary> users;
+
+    // Pass back as cursor= to get the next page; null on the last page
+    private String nextCursor;
+}
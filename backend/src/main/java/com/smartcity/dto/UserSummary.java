@@ -0,0 +1,21 @@
+package com.smartcity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.smartcity.config.FieldSelectionWriter;
+import com.smartcity.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+public class UserSummary {
+
+    private Long id;
+    private String name;
+    private String email;
+    private User.Role role;
+    private String cityId;
+}
@@ -0,0 +1,60 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resolved complaint moved out of the complaints table by ComplaintArchiveService. Rows keep
+ * their original id and are grouped by the month they were resolved in (archiveMonth, yyyymm).
+ */
+@Entity
+@Table(name = "complaints_archive", indexes = {
+        @Index(name = "idx_complaints_archive_city_user", columnList = "cityId, userId"),
+        @Index(name = "idx_complaints_archive_city_month", columnList = "cityId, archiveMonth")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(CityScopedListener.class)
+public class ArchivedComplaint implements CityScoped {
+
+    @Id
+    private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 1000)
+    private String description;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Complaint.Status status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime firstResponseAt;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer archiveMonth;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,39 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String region;
+
+    // Null invalidates the whole region
+    @Column(length = 255)
+    private String entityKey;
+
+    // City of the writer; null for background work that spans every city
+    @Column(length = 32)
+    private String cityId;
+
+    @Column(nullable = false, length = 64)
+    private String sourceNode;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,23 +1,34 @@
 package com.smartcity.entity;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.smartcity.config.FieldSelectionWriter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "city_news")
+@Table(name = "city_news", indexes = {
+        @Index(name = "idx_city_news_city_created", columnList = "cityId, createdAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class CityNews {
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+@EntityListeners(CityScopedListener.class)
+public class CityNews implements CityScoped {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
     
     @Column(nullable = false)
     private String title;
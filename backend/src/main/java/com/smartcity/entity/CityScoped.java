@@ -0,0 +1,12 @@
+package com.smartcity.entity;
+
+/**
+ * Entity owned by one city. Queries are limited to the current city by Hibernate's tenant
+ * discriminator; CityScopedListener covers loads by id, which the discriminator does not.
+ */
+public interface CityScoped {
+
+    Long getId();
+
+    String getCityId();
+}
@@ -0,0 +1,20 @@
+package com.smartcity.entity;
+
+import com.smartcity.exception.ResourceNotFoundException;
+import com.smartcity.security.TenantContext;
+import jakarta.persistence.PostLoad;
+
+/**
+ * Reports an entity of another city loaded by id as not found, the same as a query would.
+ * Background work without a current city may load any city's rows.
+ */
+public class CityScopedListener {
+
+    @PostLoad
+    public void checkCity(CityScoped entity) {
+        String city = TenantContext.getCurrentCity();
+        if (city != null && !city.equals(entity.getCityId())) {
+            throw new ResourceNotFoundException(entity.getClass().getSimpleName(), entity.getId());
+        }
+    }
+}
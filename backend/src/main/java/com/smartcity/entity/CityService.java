@@ -4,17 +4,28 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 @Entity
-@Table(name = "city_services")
+@Table(name = "city_services", indexes = {
+        @Index(name = "idx_city_services_city", columnList = "cityId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class CityService {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "city-services")
+@EntityListeners(CityScopedListener.class)
+public class CityService implements CityScoped {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
     
     @Column(nullable = false)
     private String name;
@@ -1,26 +1,44 @@
 package com.smartcity.entity;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.smartcity.config.FieldSelectionWriter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints", indexes = {
+        @Index(name = "idx_complaints_city_user_created", columnList = "cityId, user_id, createdAt"),
+        @Index(name = "idx_complaints_city_status", columnList = "cityId, status"),
+        @Index(name = "idx_complaints_city_created", columnList = "cityId, createdAt"),
+        // Keyset order of the incremental analytics export
+        @Index(name = "idx_complaints_updated", columnList = "updatedAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Complaint {
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+@EntityListeners(CityScopedListener.class)
+public class Complaint implements CityScoped {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "complaint_id_generator")
+    @TableGenerator(name = "complaint_id_generator", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "complaints", allocationSize = 50)
     private Long id;
 
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
+
     @Column(nullable = false)
     private String title;
 
@@ -41,11 +59,15 @@ public class Complaint {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Set when the status first leaves PENDING
+    private LocalDateTime firstResponseAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
-    @JsonIgnoreProperties({"complaints", "password"})
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User user;
 
+    // complaint_status_changes stores the ordinal, so new statuses go at the end
     public enum Status {
         PENDING,
         IN_PROGRESS,
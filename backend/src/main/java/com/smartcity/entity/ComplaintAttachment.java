@@ -0,0 +1,47 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Photo attached to a complaint. The file itself lives in the content-addressed attachment
+ * store under its SHA-256 hash, so identical uploads share one file. There is no foreign key
+ * to complaints because archived complaints keep their attachments.
+ */
+@Entity
+@Table(name = "complaint_attachments", indexes = {
+        @Index(name = "idx_complaint_attachments_complaint_id", columnList = "complaintId"),
+        @Index(name = "idx_complaint_attachments_hash", columnList = "contentHash")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long complaintId;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    private String originalFilename;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
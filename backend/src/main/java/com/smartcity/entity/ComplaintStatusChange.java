@@ -0,0 +1,52 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status transition of a complaint, appended in the same transaction as the change and
+ * never updated. Statuses are stored by ordinal in a tinyint to keep the rows small. There is
+ * no foreign key to complaints because archived complaints keep their history.
+ */
+@Entity
+@Table(name = "complaint_status_changes", indexes = {
+        @Index(name = "idx_complaint_status_changes_city_complaint", columnList = "cityId, complaintId, id"),
+        @Index(name = "idx_complaint_status_changes_city_changed", columnList = "cityId, changedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(CityScopedListener.class)
+public class ComplaintStatusChange implements CityScoped {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
+
+    @Column(nullable = false, updatable = false)
+    private Long complaintId;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, updatable = false, columnDefinition = "TINYINT")
+    private Complaint.Status fromStatus;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, updatable = false, columnDefinition = "TINYINT")
+    private Complaint.Status toStatus;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+
+    // Admin who made the change; null for changes made outside a request
+    @Column(updatable = false)
+    private Long changedBy;
+}
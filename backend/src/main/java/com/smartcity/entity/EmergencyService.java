@@ -4,17 +4,28 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 @Entity
-@Table(name = "emergency_services")
+@Table(name = "emergency_services", indexes = {
+        @Index(name = "idx_emergency_services_city", columnList = "cityId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class EmergencyService {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "emergency-services")
+@EntityListeners(CityScopedListener.class)
+public class EmergencyService implements CityScoped {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
     
     @Column(nullable = false)
     private String serviceName;
@@ -0,0 +1,91 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bulk import of a CSV or NDJSON file from the import directory. recordsProcessed is the
+ * checkpoint: it is committed together with each chunk of inserted rows, so a resumed job
+ * skips exactly the records that are already in the database.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(CityScopedListener.class)
+public class ImportJob implements CityScoped {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // City the rows are imported into
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Format format;
+
+    @Column(nullable = false, length = 500)
+    private String filePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private long recordsProcessed;
+
+    @Column(nullable = false)
+    private long insertedCount;
+
+    @Column(nullable = false)
+    private long rejectedCount;
+
+    private double rowsPerSecond;
+
+    // NDJSON file with one line per rejected record: record number, reason and the fields
+    @Column(length = 500)
+    private String rejectsPath;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    public enum Type {
+        USERS,
+        COMPLAINTS
+    }
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -1,23 +1,38 @@
 package com.smartcity.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_city_user_created", columnList = "cityId, user_id, createdAt"),
+        @Index(name = "idx_notifications_city_created", columnList = "cityId, createdAt"),
+        // Keyset order of the incremental analytics export
+        @Index(name = "idx_notifications_created", columnList = "createdAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Notification {
+@EntityListeners(CityScopedListener.class)
+public class Notification implements CityScoped {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_id_generator")
+    @TableGenerator(name = "notification_id_generator", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "notifications", allocationSize = 50)
     private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
     
     @Column(nullable = false, length = 500)
     private String message;
@@ -28,5 +43,6 @@ public class Notification {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User user;
 }
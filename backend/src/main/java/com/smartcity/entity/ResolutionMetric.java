@@ -0,0 +1,56 @@
+package com.smartcity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized DurationSketch of one metric for one city, complaint category and day. Instances add
+ * their recent samples to the row periodically, so the row always holds the whole day.
+ */
+@Entity
+@Table(name = "resolution_metrics",
+        uniqueConstraints = @UniqueConstraint(name = "uk_resolution_metrics_key",
+                columnNames = {"cityId", "metric", "category", "metricDate"}),
+        indexes = @Index(name = "idx_resolution_metrics_city_date", columnList = "cityId, metric, metricDate"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionMetric {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Metric metric;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private LocalDate metricDate;
+
+    @Column(nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch;
+
+    private LocalDateTime updatedAt;
+
+    public enum Metric {
+        FIRST_RESPONSE,
+        RESOLUTION
+    }
+}
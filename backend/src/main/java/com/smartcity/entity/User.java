@@ -1,30 +1,47 @@
 package com.smartcity.entity;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartcity.config.FieldSelectionWriter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_city_email", columnNames = {"cityId", "email"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class User {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@JsonFilter(FieldSelectionWriter.FILTER_ID)
+@EntityListeners(CityScopedListener.class)
+public class User implements CityScoped {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    // Tenant key: Hibernate limits every query to the current city and fills it in on insert
+    @TenantId
+    @Column(nullable = false, length = 32, updatable = false)
+    private String cityId;
     
     @Column(nullable = false)
     private String name;
     
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
     
+    @JsonIgnore
     @Column(nullable = false)
     private String password;
     
@@ -36,9 +53,11 @@ public class User {
     
     private String address;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<Complaint> complaints = new ArrayList<>();
     
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<Notification> notifications = new ArrayList<>();
     
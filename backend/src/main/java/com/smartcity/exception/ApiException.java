@@ -0,0 +1,12 @@
+package com.smartcity.exception;
+
+/**
+ * Base class for expected client-facing errors. These are thrown on hot paths such as
+ * lookups of unknown ids, so they skip stack trace capture and suppression bookkeeping.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    protected ApiException(String message) {
+        super(message, null, false, false);
+    }
+}
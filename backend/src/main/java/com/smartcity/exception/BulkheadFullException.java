@@ -0,0 +1,15 @@
+package com.smartcity.exception;
+
+public class BulkheadFullException extends ApiException {
+
+    private final int retryAfterSeconds;
+
+    public BulkheadFullException(String trafficClass, int retryAfterSeconds) {
+        super("Too many " + trafficClass.toLowerCase() + " requests are running, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
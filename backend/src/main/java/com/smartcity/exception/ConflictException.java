@@ -0,0 +1,8 @@
+package com.smartcity.exception;
+
+public class ConflictException extends ApiException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
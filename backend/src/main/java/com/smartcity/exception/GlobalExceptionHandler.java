@@ -0,0 +1,92 @@
+package com.smartcity.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translates {@link ApiException}s into RFC 7807 problem responses. The problem bodies only
+ * depend on the resource type or the (constant) conflict message, so each one is serialized
+ * once and the same bytes are written for every later response.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final String QUERY_TIMEOUT_DETAIL = "The query took too long and was cancelled";
+
+    private final Map<String, byte[]> notFoundProblems = new ConcurrentHashMap<>();
+
+    private final Map<String, byte[]> conflictProblems = new ConcurrentHashMap<>();
+
+    private final Map<String, byte[]> attachmentProblems = new ConcurrentHashMap<>();
+
+    private final Map<String, byte[]> unavailableProblems = new ConcurrentHashMap<>();
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFound(ResourceNotFoundException ex) {
+        byte[] body = notFoundProblems.computeIfAbsent(ex.getResource(),
+                resource -> serialize(HttpStatus.NOT_FOUND, resource + " not found"));
+        return problem(HttpStatus.NOT_FOUND, body);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<byte[]> handleConflict(ConflictException ex) {
+        byte[] body = conflictProblems.computeIfAbsent(ex.getMessage(),
+                message -> serialize(HttpStatus.CONFLICT, message));
+        return problem(HttpStatus.CONFLICT, body);
+    }
+
+    @ExceptionHandler(InvalidAttachmentException.class)
+    public ResponseEntity<byte[]> handleInvalidAttachment(InvalidAttachmentException ex) {
+        byte[] body = attachmentProblems.computeIfAbsent(ex.getStatus().value() + ex.getMessage(),
+                key -> serialize(ex.getStatus(), ex.getMessage()));
+        return problem(ex.getStatus(), body);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<byte[]> handleBulkheadFull(BulkheadFullException ex) {
+        byte[] body = unavailableProblems.computeIfAbsent(ex.getMessage(),
+                message -> serialize(HttpStatus.SERVICE_UNAVAILABLE, message));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    // Statement and transaction timeouts, e.g. an analytics report over its time limit
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<byte[]> handleTimeout(RuntimeException ex) {
+        byte[] body = unavailableProblems.computeIfAbsent(QUERY_TIMEOUT_DETAIL,
+                message -> serialize(HttpStatus.SERVICE_UNAVAILABLE, message));
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, body);
+    }
+
+    private byte[] serialize(HttpStatus status, String detail) {
+        try {
+            return objectMapper.writeValueAsBytes(ProblemDetail.forStatusAndDetail(status, detail));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ResponseEntity<byte[]> problem(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+}
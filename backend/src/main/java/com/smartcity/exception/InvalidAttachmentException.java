@@ -0,0 +1,17 @@
+package com.smartcity.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidAttachmentException extends ApiException {
+
+    private final HttpStatus status;
+
+    public InvalidAttachmentException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
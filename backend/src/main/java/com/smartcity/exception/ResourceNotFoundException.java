@@ -0,0 +1,29 @@
+package com.smartcity.exception;
+
+public class ResourceNotFoundException extends ApiException {
+
+    private final String resource;
+    private final String field;
+    private final Object value;
+
+    public ResourceNotFoundException(String resource, Object id) {
+        this(resource, "id", id);
+    }
+
+    public ResourceNotFoundException(String resource, String field, Object value) {
+        super(null);
+        this.resource = resource;
+        this.field = field;
+        this.value = value;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    // Built on demand so that requests answered with the cached problem body never format it.
+    @Override
+    public String getMessage() {
+        return resource + " not found with " + field + ": " + value;
+    }
+}
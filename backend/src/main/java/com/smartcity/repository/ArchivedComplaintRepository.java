@@ -0,0 +1,21 @@
+package com.smartcity.repository;
+
+import com.smartcity.entity.ArchivedComplaint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedComplaintRepository extends JpaRepository<ArchivedComplaint, Long> {
+
+    Page<ArchivedComplaint> findByUserId(Long userId, Pageable pageable);
+
+    Page<ArchivedComplaint> findByArchiveMonth(Integer archiveMonth, Pageable pageable);
+
+    @Query("select a.userId from ArchivedComplaint a where a.id = :id")
+    Optional<Long> findUserIdById(Long id);
+}
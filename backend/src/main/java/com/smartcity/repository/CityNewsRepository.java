@@ -1,9 +1,18 @@
 package com.smartcity.repository;
 
+import com.smartcity.dto.NewsSummary;
 import com.smartcity.entity.CityNews;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CityNewsRepository extends JpaRepository<CityNews, Long> {
+
+    @Query("select new com.smartcity.dto.NewsSummary(n.id, n.title, n.imageUrl, n.createdAt) "
+            + "from CityNews n order by n.createdAt desc")
+    List<NewsSummary> findLatestSummaries(Pageable pageable);
 }
@@ -1,9 +1,17 @@
 package com.smartcity.repository;
 
 import com.smartcity.entity.CityService;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CityServiceRepository extends JpaRepository<CityService, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<CityService> findAll();
 }
@@ -0,0 +1,33 @@
+package com.smartcity.repository;
+
+import com.smartcity.entity.ComplaintAttachment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ComplaintAttachmentRepository extends JpaRepository<ComplaintAttachment, Long> {
+
+    List<ComplaintAttachment> findByComplaintIdOrderByIdAsc(Long complaintId);
+
+    // Complaints are limited to the current city, so files of other cities are not found.
+    // Archived complaints keep their attachments, so their owners count as well.
+    @Query("select c.user.id from Complaint c where c.id in "
+            + "(select a.complaintId from ComplaintAttachment a where a.contentHash = :contentHash) "
+            + "union select ac.userId from ArchivedComplaint ac where ac.id in "
+            + "(select a.complaintId from ComplaintAttachment a where a.contentHash = :contentHash)")
+    List<Long> findComplaintOwnerIdsByContentHash(String contentHash);
+
+    @Query("select a.contentType from ComplaintAttachment a where a.contentHash = :contentHash "
+            + "and (exists (select 1 from Complaint c where c.id = a.complaintId) "
+            + "or exists (select 1 from ArchivedComplaint ac where ac.id = a.complaintId))")
+    List<String> findContentTypesByContentHash(String contentHash, Pageable pageable);
+
+    Optional<ComplaintAttachment> findByComplaintIdAndContentHash(Long complaintId, String contentHash);
+
+    long countByComplaintId(Long complaintId);
+}
@@ -1,10 +1,14 @@
 package com.smartcity.repository;
 
+import com.smartcity.dto.ComplaintSummary;
 import com.smartcity.entity.Complaint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
@@ -12,4 +16,21 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
     List<Complaint> findByUserId(Long userId);
 
     List<Complaint> findByStatus(Complaint.Status status);
+
+    @Query("select c.user.id from Complaint c where c.id = :id")
+    Optional<Long> findUserIdById(Long id);
+
+    @Query("select new com.smartcity.dto.ComplaintSummary(c.id, c.title, c.category, c.status, c.createdAt, c.updatedAt) "
+            + "from Complaint c where c.user.id = :userId order by c.createdAt desc")
+    List<ComplaintSummary> findSummariesByUserId(Long userId, Pageable pageable);
+
+    @Query("select new com.smartcity.dto.ComplaintSummary(c.id, c.title, c.category, c.status, c.createdAt, c.updatedAt) "
+            + "from Complaint c order by c.createdAt desc")
+    List<ComplaintSummary> findRecentSummaries(Pageable pageable);
+
+    @Query("select count(c), max(c.id), max(c.updatedAt) from Complaint c where c.user.id = :userId")
+    List<Object[]> findVersionByUserId(Long userId);
+
+    @Query("select c.status, count(c) from Complaint c group by c.status")
+    List<Object[]> countGroupedByStatus();
 }
@@ -0,0 +1,13 @@
+package com.smartcity.repository;
+
+import com.smartcity.entity.ComplaintStatusChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ComplaintStatusChangeRepository extends JpaRepository<ComplaintStatusChange, Long> {
+
+    List<ComplaintStatusChange> findByComplaintIdOrderByIdAsc(Long complaintId);
+}
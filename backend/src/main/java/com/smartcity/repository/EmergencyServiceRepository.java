@@ -1,9 +1,17 @@
 package com.smartcity.repository;
 
 import com.smartcity.entity.EmergencyService;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface EmergencyServiceRepository extends JpaRepository<EmergencyService, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<EmergencyService> findAll();
 }
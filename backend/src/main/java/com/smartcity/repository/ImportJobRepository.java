@@ -0,0 +1,13 @@
+package com.smartcity.repository;
+
+import com.smartcity.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    List<ImportJob> findTop50ByOrderByIdDesc();
+}
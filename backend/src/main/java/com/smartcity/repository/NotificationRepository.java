@@ -1,7 +1,10 @@
 package com.smartcity.repository;
 
+import com.smartcity.dto.NotificationSummary;
 import com.smartcity.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,12 @@ import java.util.List;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     List<Notification> findByUserId(Long userId);
+
+    @Query("select new com.smartcity.dto.NotificationSummary(n.id, n.message, n.createdAt) "
+            + "from Notification n where n.user.id = :userId order by n.createdAt desc")
+    List<NotificationSummary> findSummariesByUserId(Long userId, Pageable pageable);
+
+    // Notifications are never updated, so count and highest id identify the list
+    @Query("select count(n), max(n.id) from Notification n where n.user.id = :userId")
+    List<Object[]> findVersionByUserId(Long userId);
 }
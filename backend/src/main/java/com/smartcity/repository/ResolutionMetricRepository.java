@@ -0,0 +1,28 @@
+package com.smartcity.repository;
+
+import com.smartcity.entity.ResolutionMetric;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ResolutionMetricRepository extends JpaRepository<ResolutionMetric, Long> {
+
+    // Flushes run outside a request and see every city, so the city is part of the key
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from ResolutionMetric m where m.cityId = :cityId and m.metric = :metric"
+            + " and m.category = :category and m.metricDate = :metricDate")
+    Optional<ResolutionMetric> findForUpdate(String cityId, ResolutionMetric.Metric metric, String category,
+                                             LocalDate metricDate);
+
+    List<ResolutionMetric> findByMetricAndMetricDateBetween(ResolutionMetric.Metric metric, LocalDate from, LocalDate to);
+
+    List<ResolutionMetric> findByMetricAndCategoryAndMetricDateBetween(ResolutionMetric.Metric metric, String category,
+                                                                       LocalDate from, LocalDate to);
+}
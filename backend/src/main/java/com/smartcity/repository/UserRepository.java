@@ -1,15 +1,32 @@
 package com.smartcity.repository;
 
+import com.smartcity.dto.UserSummary;
 import com.smartcity.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<User> findByEmail(String email);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Boolean existsByEmail(String email);
+
+    @Query("select new com.smartcity.dto.UserSummary(u.id, u.name, u.email, u.role, u.cityId) from User u order by u.id")
+    List<UserSummary> findAllSummaries();
+
+    @Query("select new com.smartcity.dto.UserSummary(u.id, u.name, u.email, u.role, u.cityId) from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfterId(Long afterId, Pageable pageable);
+
+    @Query("select new com.smartcity.dto.UserSummary(u.id, u.name, u.email, u.role, u.cityId) from User u where u.id = :id")
+    Optional<UserSummary> findSummaryById(Long id);
 }
@@ -1,5 +1,6 @@
 package com.smartcity.security;
 
+import com.smartcity.config.RateLimitedLog;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -15,11 +16,14 @@ import java.io.IOException;
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
+
+    // Each rejected token was already logged by JwtUtils; this only samples the 401s themselves
+    private final RateLimitedLog unauthorized = new RateLimitedLog(logger, 10_000);
     
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
-        logger.error("Unauthorized error: {}", authException.getMessage());
+        unauthorized.info("unauthorized", "Unauthorized error: {}", authException.getMessage());
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Error: Unauthorized");
     }
 }
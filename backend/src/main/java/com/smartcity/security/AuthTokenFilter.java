@@ -1,5 +1,7 @@
 package com.smartcity.security;
 
+import com.smartcity.config.AccessLogFilter;
+import com.smartcity.config.RateLimitedLog;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -28,12 +31,37 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    private final RateLimitedLog authenticationFailures = new RateLimitedLog(logger, 10_000);
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        String jwt = parseJwt(request);
+        boolean authenticated = jwt != null && jwtUtils.validateJwtToken(jwt);
+        String city = authenticated ? jwtUtils.getCityFromJwtToken(jwt) : request.getHeader(TenantContext.HEADER);
+        if (city == null) {
+            city = TenantContext.DEFAULT_CITY;
+        } else if (!TenantContext.isValidCityId(city)) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Error: Invalid city!\"}");
+            return;
+        }
+
+        // The user is looked up within the token's city, and so is everything the request touches
+        TenantContext.setCurrentCity(city);
+        request.setAttribute(AccessLogFilter.CITY_ATTRIBUTE, city);
+        try {
+            doFilterAuthenticated(request, response, filterChain, authenticated ? jwt : null);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void doFilterAuthenticated(HttpServletRequest request, HttpServletResponse response,
+                                       FilterChain filterChain, String jwt) throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            if (jwt != null) {
                 String username = jwtUtils.getUserNameFromJwtToken(jwt);
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
@@ -42,9 +70,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails instanceof UserDetailsImpl user) {
+                    request.setAttribute(AccessLogFilter.USER_ATTRIBUTE, user.getId());
+                }
             }
         } catch (Exception e) {
-            logger.error("Cannot set user authentication: {}", e);
+            // Usually a token for a deleted user; the stack trace adds nothing
+            authenticationFailures.warn(e.getClass().getSimpleName(), "Cannot set user authentication: {}",
+                    e.toString());
         }
 
         filterChain.doFilter(request, response);
@@ -1,5 +1,6 @@
 package com.smartcity.security;
 
+import com.smartcity.config.RateLimitedLog;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -18,17 +19,26 @@ public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String CITY_CLAIM = "city";
+
     @Value("${JWT_SECRET}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    // Rejected tokens are logged once per interval and reason, however many arrive
+    @Value("${security-log.interval-ms:10000}")
+    private long securityLogIntervalMs;
+
     private SecretKey key;
 
+    private RateLimitedLog rejectedTokens;
+
     @PostConstruct
 public void init() {
     this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    this.rejectedTokens = new RateLimitedLog(logger, securityLogIntervalMs);
 }
 
 
@@ -37,6 +47,7 @@ public void init() {
 
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
+                .claim(CITY_CLAIM, userPrincipal.getCityId())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpiration))
                 .signWith(key)
@@ -52,6 +63,20 @@ public void init() {
                 .getSubject();
     }
 
+    /**
+     * Returns the city the token was issued for; tokens from before multi-city support have
+     * none and belong to the default city.
+     */
+    public String getCityFromJwtToken(String token) {
+        String city = Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .get(CITY_CLAIM, String.class);
+        return city != null ? city : TenantContext.DEFAULT_CITY;
+    }
+
     public boolean validateJwtToken(String authToken) {
         try {
             Jwts.parser()
@@ -60,13 +85,16 @@ public void init() {
                     .parseSignedClaims(authToken);
             return true;
         } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
+            rejectedTokens.warn("malformed", "Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
+            // Routine for clients that keep polling after the session ended
+            rejectedTokens.info("expired", "JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
+            rejectedTokens.warn("unsupported", "JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
+            rejectedTokens.warn("empty", "JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            rejectedTokens.warn("signature", "JWT signature is invalid: {}", e.getMessage());
         }
         return false;
     }
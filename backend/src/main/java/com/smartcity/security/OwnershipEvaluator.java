@@ -0,0 +1,77 @@
+package com.smartcity.security;
+
+import com.smartcity.repository.ArchivedComplaintRepository;
+import com.smartcity.repository.ComplaintAttachmentRepository;
+import com.smartcity.repository.ComplaintRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Used from @PreAuthorize expressions as {@code @ownership.isSelf(authentication, #userId)}.
+ * The check reads the id already carried by the authenticated principal, so it never
+ * touches the database; ownsComplaint only reads the complaint's user_id, and the attachment
+ * checks the user_id of the current city's complaints, live or archived, that carry the file.
+ */
+@Component("ownership")
+public class OwnershipEvaluator {
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ArchivedComplaintRepository archivedComplaintRepository;
+
+    @Autowired
+    private ComplaintAttachmentRepository complaintAttachmentRepository;
+
+    public boolean isSelf(Authentication authentication, Long userId) {
+        if (authentication == null || userId == null) {
+            return false;
+        }
+        return authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+                && userId.equals(userDetails.getId());
+    }
+
+    /**
+     * Whether a complaint of the current city carries the attachment, for admins.
+     */
+    public boolean isAttachmentInCity(String hash) {
+        return hash != null && !complaintAttachmentRepository.findComplaintOwnerIdsByContentHash(hash).isEmpty();
+    }
+
+    /**
+     * Whether one of the caller's complaints carries the attachment. The same photo uploaded
+     * by someone else does not make it theirs to fetch by hash.
+     */
+    public boolean ownsAttachment(Authentication authentication, String hash) {
+        if (hash == null) {
+            return false;
+        }
+        return complaintAttachmentRepository.findComplaintOwnerIdsByContentHash(hash).stream()
+                .anyMatch(ownerId -> isSelf(authentication, ownerId));
+    }
+
+    public boolean ownsComplaint(Authentication authentication, Long complaintId) {
+        if (complaintId == null) {
+            return false;
+        }
+        return complaintRepository.findUserIdById(complaintId)
+                .map(ownerId -> isSelf(authentication, ownerId))
+                .orElse(false);
+    }
+
+    /**
+     * Like ownsComplaint, but also for complaints moved to the archive, for reads of what they
+     * keep there such as their attachments.
+     */
+    public boolean ownsComplaintOrArchived(Authentication authentication, Long complaintId) {
+        if (complaintId == null) {
+            return false;
+        }
+        return complaintRepository.findUserIdById(complaintId)
+                .or(() -> archivedComplaintRepository.findUserIdById(complaintId))
+                .map(ownerId -> isSelf(authentication, ownerId))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartcity.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.regex.Pattern;
+
+/**
+ * The city (tenant) the current request works on. AuthTokenFilter sets it from the city claim
+ * of the JWT, or for anonymous requests from the X-City header, defaulting to DEFAULT_CITY.
+ * Threads that run work for a request with its security context (the dashboard pool) fall
+ * back to the signed-in user's city. Anything else, such as scheduled jobs, has no city and
+ * works across all of them.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_CITY = "default";
+
+    // Tenant identifier Hibernate treats as root: no city filter is applied
+    public static final String ALL_CITIES = "*";
+
+    public static final String HEADER = "X-City";
+
+    private static final Pattern CITY_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * Returns the city of the current request, or null outside of one.
+     */
+    public static String getCurrentCity() {
+        String city = CURRENT.get();
+        if (city != null) {
+            return city;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getCityId();
+        }
+        return null;
+    }
+
+    public static boolean isValidCityId(String city) {
+        return city != null && CITY_ID.matcher(city).matches();
+    }
+
+    static void setCurrentCity(String city) {
+        CURRENT.set(city);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
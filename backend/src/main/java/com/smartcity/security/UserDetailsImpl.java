@@ -18,6 +18,7 @@ public class UserDetailsImpl implements UserDetails {
     private Long id;
     private String name;
     private String email;
+    private String cityId;
 
     @JsonIgnore
     private String password;
@@ -33,6 +34,7 @@ public class UserDetailsImpl implements UserDetails {
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
+                user.getCityId(),
                 user.getPassword(),
                 authorities
         );
@@ -15,6 +15,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    // Read-write on purpose: authentication must see fresh signups and password changes, so it
+    // never goes to the read replica.
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
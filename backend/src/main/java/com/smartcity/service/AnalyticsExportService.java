@@ -0,0 +1,355 @@
+package com.smartcity.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.config.TrafficBulkheads;
+import com.smartcity.config.TrafficBulkheads.TrafficClass;
+import com.smartcity.dto.ExportManifest;
+import com.smartcity.exception.BulkheadFullException;
+import com.smartcity.service.ParquetWriter.Column;
+import com.smartcity.service.ParquetWriter.Type;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Exports complaints, users and notifications into gzip-compressed Parquet files below
+ * analytics-export.dir, so analysts can run their GROUP BYs on a copy instead of the
+ * production database. Every run appends one partition file per table with the rows changed
+ * since the previous run and records it in the table's manifest.json.
+ *
+ * Complaints are exported by updated_at and notifications by created_at, in half-open windows
+ * that end lag-seconds before the newest row the source has (or before the run starts, if that
+ * is earlier) so that transactions still in flight are picked up next time. Measuring from the
+ * newest row keeps a lagging replica from moving the watermark past rows it has not applied. A complaint that changes again is exported again; the newest updated_at per
+ * id is the current row. Users are exported by id, without personal fields. Rows are read in
+ * keyset-paged chunks through the ANALYTICS bulkhead, which uses the replica when there is one.
+ */
+@Service
+public class AnalyticsExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsExportService.class);
+
+    private static final String MANIFEST = "manifest.json";
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final List<Table> TABLES = List.of(
+            new Table("complaints", "updated_at",
+                    List.of(new Column("id", Type.INT64, false),
+                            new Column("city_id", Type.STRING, false),
+                            new Column("user_id", Type.INT64, false),
+                            new Column("title", Type.STRING, false),
+                            new Column("description", Type.STRING, false),
+                            new Column("category", Type.STRING, false),
+                            new Column("status", Type.STRING, false),
+                            new Column("created_at", Type.TIMESTAMP, true),
+                            new Column("updated_at", Type.TIMESTAMP, true),
+                            new Column("first_response_at", Type.TIMESTAMP, true))),
+            new Table("notifications", "created_at",
+                    List.of(new Column("id", Type.INT64, false),
+                            new Column("city_id", Type.STRING, false),
+                            new Column("user_id", Type.INT64, false),
+                            new Column("message", Type.STRING, false),
+                            new Column("created_at", Type.TIMESTAMP, true))),
+            // Users never change after signup; name, email, phone and address stay in the database
+            new Table("users", "id",
+                    List.of(new Column("id", Type.INT64, false),
+                            new Column("city_id", Type.STRING, false),
+                            new Column("role", Type.STRING, false))));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrafficBulkheads trafficBulkheads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${analytics-export.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics-export.dir:data/analytics}")
+    private String exportDir;
+
+    @Value("${analytics-export.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${analytics-export.row-group-rows:100000}")
+    private int rowGroupRows;
+
+    @Value("${analytics-export.lag-seconds:60}")
+    private long lagSeconds;
+
+    // How long one chunk may wait for an ANALYTICS permit before the run gives up until next time
+    @Value("${analytics-export.max-wait-seconds:300}")
+    private long maxWaitSeconds;
+
+    private Path root;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private record Table(String name, String watermarkColumn, List<Column> columns) {
+
+        boolean byId() {
+            return "id".equals(watermarkColumn);
+        }
+
+        String chunkSql() {
+            String select = "SELECT " + String.join(", ", columns.stream().map(Column::name).toList())
+                    + " FROM " + name;
+            if (byId()) {
+                return select + " WHERE id > :lastId AND id <= :upper ORDER BY id LIMIT :limit";
+            }
+            return select + " WHERE " + watermarkColumn + " >= :lastValue AND (" + watermarkColumn
+                    + " > :lastValue OR id > :lastId) AND " + watermarkColumn + " < :upper ORDER BY "
+                    + watermarkColumn + ", id LIMIT :limit";
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(exportDir);
+    }
+
+    @Scheduled(cron = "${analytics-export.cron:0 15 * * * *}")
+    public void scheduledExport() {
+        if (enabled) {
+            try {
+                export(false);
+            } catch (BulkheadFullException e) {
+                // The scheduler thread also runs cache polling, flushes and purges; never park it
+                logger.info("Analytics export skipped, admin reports held the ANALYTICS bulkhead for {} s;"
+                        + " the next run continues from the last watermark", maxWaitSeconds);
+            }
+        }
+    }
+
+    /**
+     * Exports every table and returns the number of rows written per table, or null when an
+     * export is already running. A full export starts a new generation from the first row.
+     * Throws BulkheadFullException when admin reports keep the ANALYTICS bulkhead full for
+     * longer than max-wait-seconds; tables finished before that keep their new partition.
+     */
+    public Map<String, Long> export(boolean full) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Analytics export is already running");
+            return null;
+        }
+        try {
+            Map<String, Long> exported = new LinkedHashMap<>();
+            for (Table table : TABLES) {
+                exported.put(table.name(), exportTable(table, full));
+            }
+            logger.info("Analytics export wrote {}", exported);
+            return exported;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Analytics export to " + root.toAbsolutePath() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<ExportManifest> getManifests() {
+        List<ExportManifest> manifests = new ArrayList<>();
+        for (Table table : TABLES) {
+            try {
+                ExportManifest manifest = readManifest(table);
+                if (manifest != null) {
+                    manifests.add(manifest);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return manifests;
+    }
+
+    private long exportTable(Table table, boolean full) throws IOException, InterruptedException {
+        Path tableDir = root.resolve(table.name());
+        Files.createDirectories(tableDir);
+        ExportManifest manifest = readManifest(table);
+        if (manifest == null) {
+            manifest = new ExportManifest(table.name(), "parquet", "gzip", table.watermarkColumn(), null, 1, 1,
+                    null, new ArrayList<>());
+        } else if (full) {
+            manifest.setGeneration(manifest.getGeneration() + 1);
+            manifest.setWatermark(null);
+            manifest.setPartitions(new ArrayList<>());
+        }
+
+        String lower = manifest.getWatermark();
+        Object upper;
+        if (table.byId()) {
+            Long maxId = readChunk(() -> jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table.name(),
+                    Map.of(), Long.class));
+            upper = maxId != null ? maxId : 0L;
+            if (lower != null && (Long) upper <= Long.parseLong(lower)) {
+                return 0;
+            }
+        } else {
+            // Chunks come from the replica, which may be behind the clock: the window ends lag-seconds
+            // before the newest row it has applied rather than before now
+            LocalDateTime newest = readChunk(() -> jdbcTemplate.queryForObject("SELECT MAX("
+                    + table.watermarkColumn() + ") FROM " + table.name(), Map.of(), LocalDateTime.class));
+            LocalDateTime now = LocalDateTime.now();
+            upper = newest == null ? BEGINNING : (newest.isBefore(now) ? newest : now).minusSeconds(lagSeconds);
+            if (lower != null && !((LocalDateTime) upper).isAfter(LocalDateTime.parse(lower))) {
+                return 0;
+            }
+        }
+
+        String file = String.format("part-%08d.parquet", manifest.getNextSequence());
+        Path target = tableDir.resolve(file);
+        Path temporary = tableDir.resolve(file + ".tmp");
+        long rows;
+        try (ParquetWriter writer = new ParquetWriter(Files.newOutputStream(temporary), table.columns(),
+                rowGroupRows)) {
+            writeRows(table, writer, lower, upper);
+            rows = writer.getRowCount();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (rows > 0) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            manifest.getPartitions().add(new ExportManifest.Partition(manifest.getNextSequence(), file, rows,
+                    Files.size(target), lower, upper.toString(), now));
+            manifest.setNextSequence(manifest.getNextSequence() + 1);
+        } else {
+            Files.delete(temporary);
+        }
+        manifest.setWatermark(upper.toString());
+        manifest.setUpdatedAt(now);
+        writeManifest(tableDir, manifest);
+        if (full) {
+            deleteUnlistedPartitions(tableDir, manifest);
+        }
+        return rows;
+    }
+
+    private void writeRows(Table table, ParquetWriter writer, String lower, Object upper)
+            throws IOException, InterruptedException {
+        String sql = table.chunkSql();
+        RowMapper<Object[]> rowMapper = rowMapper(table.columns());
+        Object lastValue = table.byId() ? null : (lower != null ? LocalDateTime.parse(lower) : BEGINNING);
+        long lastId = table.byId() && lower != null ? Long.parseLong(lower) : Long.MIN_VALUE;
+        int watermarkIndex = watermarkIndex(table);
+        List<Object[]> chunk;
+        do {
+            MapSqlParameterSource params = new MapSqlParameterSource("lastId", lastId)
+                    .addValue("lastValue", lastValue)
+                    .addValue("upper", upper)
+                    .addValue("limit", chunkSize);
+            chunk = readChunk(() -> jdbcTemplate.query(sql, params, rowMapper));
+            for (Object[] row : chunk) {
+                writer.writeRow(row);
+            }
+            if (!chunk.isEmpty()) {
+                Object[] last = chunk.get(chunk.size() - 1);
+                lastId = (Long) last[0];
+                lastValue = last[watermarkIndex];
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    // Reads on the ANALYTICS bulkhead, waiting up to max-wait-seconds for a permit while admin
+    // reports hold them all
+    private <T> T readChunk(Supplier<T> read) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        while (true) {
+            try {
+                return trafficBulkheads.call(TrafficClass.ANALYTICS, read);
+            } catch (BulkheadFullException e) {
+                if (System.nanoTime() - deadline >= 0) {
+                    throw e;
+                }
+                TimeUnit.SECONDS.sleep(e.getRetryAfterSeconds());
+            }
+        }
+    }
+
+    private static int watermarkIndex(Table table) {
+        for (int i = 0; i < table.columns().size(); i++) {
+            if (table.columns().get(i).name().equals(table.watermarkColumn())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No watermark column in " + table.name());
+    }
+
+    private static RowMapper<Object[]> rowMapper(List<Column> columns) {
+        return (resultSet, rowNum) -> {
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = switch (columns.get(i).type()) {
+                    case INT64 -> {
+                        long value = resultSet.getLong(i + 1);
+                        yield resultSet.wasNull() ? null : value;
+                    }
+                    case STRING -> resultSet.getString(i + 1);
+                    case TIMESTAMP -> resultSet.getObject(i + 1, LocalDateTime.class);
+                };
+            }
+            return row;
+        };
+    }
+
+    private ExportManifest readManifest(Table table) throws IOException {
+        Path path = root.resolve(table.name()).resolve(MANIFEST);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        return objectMapper.readValue(path.toFile(), ExportManifest.class);
+    }
+
+    // Written next to the manifest and moved over it, so readers never see half a manifest
+    private void writeManifest(Path tableDir, ExportManifest manifest) throws IOException {
+        Path temporary = tableDir.resolve(MANIFEST + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, tableDir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteUnlistedPartitions(Path tableDir, ExportManifest manifest) throws IOException {
+        Set<String> listed = new HashSet<>();
+        manifest.getPartitions().forEach(partition -> listed.add(partition.getFile()));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tableDir, "part-*.parquet")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.smartcity.service;
+
+import com.smartcity.exception.InvalidAttachmentException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store for complaint photos. Uploads are streamed through a SHA-256
+ * digest into a temporary file and then moved to {@code <dir>/ab/cd/<hash>}, so a photo that
+ * is uploaded twice is stored once and its path never changes. Thumbnails are rendered by a
+ * small fixed pool with a bounded queue; when the queue is full the thumbnail is skipped and
+ * rendered again on the next upload of the same content.
+ */
+@Service
+public class AttachmentStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStorage.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int SNIFF_LENGTH = 12;
+
+    @Value("${attachments.storage-dir:data/attachments}")
+    private String storageDir;
+
+    @Value("${attachments.max-size-bytes:10485760}")
+    private long maxSizeBytes;
+
+    @Value("${attachments.thumbnail.max-dimension:320}")
+    private int thumbnailMaxDimension;
+
+    @Value("${attachments.thumbnail.max-source-pixels:50000000}")
+    private long thumbnailMaxSourcePixels;
+
+    @Value("${attachments.thumbnail.threads:2}")
+    private int thumbnailThreads;
+
+    @Value("${attachments.thumbnail.queue-capacity:100}")
+    private int thumbnailQueueCapacity;
+
+    private Path root;
+
+    private Path tempDir;
+
+    private ThreadPoolExecutor thumbnailExecutor;
+
+    public record StoredFile(String hash, String contentType, long size) {
+    }
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(storageDir).toAbsolutePath().normalize();
+        tempDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(tempDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error: Could not create attachment directory " + root, e);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(thumbnailQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> logger.warn("Thumbnail queue is full, skipping thumbnail"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdownNow();
+    }
+
+    public StoredFile store(InputStream source) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            BufferedInputStream buffered = new BufferedInputStream(source);
+            String contentType = sniffImageType(buffered);
+            if (contentType == null) {
+                throw new InvalidAttachmentException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Error: Only JPEG, PNG, GIF and WebP images can be attached!");
+            }
+
+            long size = 0;
+            try (InputStream in = new DigestInputStream(buffered, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSizeBytes) {
+                        throw new InvalidAttachmentException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Error: Attachment exceeds the maximum size of " + maxSizeBytes + " bytes!");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            if (Files.exists(target)) {
+                Files.delete(temp);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredFile(hash, contentType, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public Path thumbnailPathFor(String hash) {
+        return root.resolve("thumbnails").resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    public void generateThumbnailAsync(String hash) {
+        if (Files.exists(thumbnailPathFor(hash))) {
+            return;
+        }
+        thumbnailExecutor.execute(() -> {
+            try {
+                generateThumbnail(hash);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not render thumbnail for attachment {}", hash, e);
+            }
+        });
+    }
+
+    private void generateThumbnail(String hash) throws IOException {
+        Path target = thumbnailPathFor(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(pathFor(hash).toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                // No decoder for this format in the JDK (WebP), the original is served instead
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > thumbnailMaxSourcePixels) {
+                    logger.info("Skipping thumbnail for {}: {}x{} is too large to decode", hash, width, height);
+                    return;
+                }
+
+                // Decode only every n-th pixel so large photos never expand fully into memory
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (thumbnailMaxDimension * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                double scale = Math.min(1.0, (double) thumbnailMaxDimension / Math.max(source.getWidth(), source.getHeight()));
+                int thumbWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+                int thumbHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+                BufferedImage thumbnail = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = thumbnail.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.drawImage(source, 0, 0, thumbWidth, thumbHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                Files.createDirectories(target.getParent());
+                Path temp = Files.createTempFile(tempDir, "thumb-", ".part");
+                try {
+                    ImageIO.write(thumbnail, "jpg", temp.toFile());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // The declared multipart content type is not trusted; only the leading magic bytes are.
+    private static String sniffImageType(BufferedInputStream input) throws IOException {
+        input.mark(SNIFF_LENGTH);
+        byte[] header = input.readNBytes(SNIFF_LENGTH);
+        input.reset();
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.length >= 12
+                && Arrays.equals(Arrays.copyOfRange(header, 8, 12), new byte[]{'W', 'E', 'B', 'P'})) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartcity.service;
+
+/**
+ * Admin actions recorded in the audit log. Segments store the ordinal, so new constants must
+ * only ever be added at the end.
+ */
+public enum AuditAction {
+    COMPLAINT_STATUS_CHANGED("Complaint"),
+    NEWS_CREATED("News"),
+    NEWS_DELETED("News"),
+    CITY_SERVICE_CREATED("CityService"),
+    CITY_SERVICE_DELETED("CityService"),
+    EMERGENCY_SERVICE_CREATED("EmergencyService"),
+    EMERGENCY_SERVICE_DELETED("EmergencyService"),
+    // The entity of a notification is the user it was sent to
+    NOTIFICATION_SENT("User");
+
+    private final String entityType;
+
+    AuditAction(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+}
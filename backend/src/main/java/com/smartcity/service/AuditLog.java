@@ -0,0 +1,303 @@
+package com.smartcity.service;
+
+import com.smartcity.dto.AuditEntry;
+import com.smartcity.security.TenantContext;
+import com.smartcity.security.UserDetailsImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of admin actions, kept in rolling memory-mapped segment files below
+ * audit.dir instead of the database so that recording an action costs the request a queue
+ * offer and nothing more.
+ *
+ * Request threads add events to a lock-free queue (after commit when inside a transaction).
+ * A single writer thread drains it, appends each event to the current segment and calls fsync
+ * once per drained batch, or at least every audit.fsync-interval-ms under sustained load.
+ * When the queue is full the event is dropped and counted rather than blocking the request.
+ * Segments older than audit.retention-days are deleted hourly.
+ */
+@Service
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    @Value("${audit.dir:data/audit}")
+    private String dir;
+
+    @Value("${audit.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${audit.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${audit.fsync-interval-ms:200}")
+    private long fsyncIntervalMs;
+
+    @Value("${audit.retention-days:365}")
+    private int retentionDays;
+
+    private Path directory;
+
+    private int segmentCapacity;
+
+    // Oldest first; the last segment is the one being written
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+
+    private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+
+    private Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean running;
+
+    record Event(long timestamp, String cityId, Long actorId, String actorEmail, AuditAction action, Long entityId,
+                 String detail) {
+    }
+
+    /**
+     * cityId limits the result to the actions taken in one city; null matches every city.
+     */
+    public record Query(String cityId, Long actorId, String entityType, Long entityId, AuditAction action,
+                        long fromMillis, long toMillis) {
+    }
+
+    @PostConstruct
+    public void open() {
+        directory = Paths.get(dir).toAbsolutePath().normalize();
+        segmentCapacity = segmentSizeMb * 1024 * 1024;
+        long nextSequence = 1;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> AuditSegment.parseFirstSequence(path) >= 0)
+                        .sorted()
+                        .toList();
+            }
+            for (int i = 0; i < files.size(); i++) {
+                AuditSegment segment = AuditSegment.open(files.get(i), segmentCapacity, i == files.size() - 1);
+                segments.add(segment);
+                if (segment.getLastSequence() >= 0) {
+                    nextSequence = segment.getLastSequence() + 1;
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.add(AuditSegment.create(directory, nextSequence, segmentCapacity));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error: Could not open audit log in " + directory, e);
+        }
+        logger.info("Audit log opened in {} with {} segments, next sequence {}", directory, segments.size(), nextSequence);
+
+        running = true;
+        long firstSequence = nextSequence;
+        writer = new Thread(() -> writeLoop(firstSequence), "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        for (AuditSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.warn("Could not close audit segment {}", segment.getPath(), e);
+            }
+        }
+    }
+
+    /**
+     * Records an action by the signed-in user in the current city. Inside a transaction the
+     * event is queued only once the transaction commits, so rolled-back changes leave no entry.
+     */
+    public void record(AuditAction action, Long entityId, String detail) {
+        Long actorId = null;
+        String actorEmail = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            actorId = user.getId();
+            actorEmail = user.getEmail();
+        }
+        Event event = new Event(System.currentTimeMillis(), TenantContext.getCurrentCity(), actorId, actorEmail,
+                action, entityId, detail);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(Event event) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            logger.error("Audit queue full, dropped {} on {} {}", event.action(), event.action().getEntityType(),
+                    event.entityId());
+            return;
+        }
+        queue.offer(event);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop(long firstSequence) {
+        long sequence = firstSequence;
+        long lastFsync = System.nanoTime();
+        long fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        boolean dirty = false;
+        while (true) {
+            Event event = queue.poll();
+            if (event != null) {
+                queued.decrementAndGet();
+                try {
+                    append(sequence, event);
+                    sequence++;
+                    written.increment();
+                    dirty = true;
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    logger.error("Could not write audit event {} on {} {}", event.action(),
+                            event.action().getEntityType(), event.entityId(), e);
+                }
+                if (dirty && System.nanoTime() - lastFsync >= fsyncIntervalNanos) {
+                    fsync();
+                    dirty = false;
+                    lastFsync = System.nanoTime();
+                }
+                continue;
+            }
+            // Queue drained: one fsync covers everything appended since the last one
+            if (dirty) {
+                fsync();
+                dirty = false;
+                lastFsync = System.nanoTime();
+            }
+            if (!running) {
+                return;
+            }
+            writerParked = true;
+            if (queue.isEmpty() && running) {
+                LockSupport.parkNanos(this, fsyncIntervalNanos);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void append(long sequence, Event event) throws IOException {
+        AuditSegment current = segments.get(segments.size() - 1);
+        if (!current.append(sequence, event)) {
+            current.force();
+            fsyncs.increment();
+            AuditSegment next = AuditSegment.create(directory, sequence, segmentCapacity);
+            segments.add(next);
+            logger.info("Audit log rolled to segment {}", next.getPath().getFileName());
+            if (!next.append(sequence, event)) {
+                throw new IllegalStateException("Audit event does not fit in an empty segment");
+            }
+        }
+    }
+
+    private void fsync() {
+        segments.get(segments.size() - 1).force();
+        fsyncs.increment();
+    }
+
+    /**
+     * Returns up to limit entries matching the query, newest first.
+     */
+    public List<AuditEntry> query(Query query, int limit) {
+        String requestedType = query.entityType();
+        if (requestedType != null) {
+            // Index keys use the canonical spelling of the entity type
+            String entityType = Arrays.stream(AuditAction.values())
+                    .map(AuditAction::getEntityType)
+                    .filter(type -> type.equalsIgnoreCase(requestedType))
+                    .findFirst()
+                    .orElse(null);
+            if (entityType == null) {
+                return List.of();
+            }
+            query = new Query(query.cityId(), query.actorId(), entityType, query.entityId(), query.action(),
+                    query.fromMillis(), query.toMillis());
+        }
+        List<AuditEntry> result = new ArrayList<>(Math.min(limit, 1000));
+        List<AuditSegment> snapshot = new ArrayList<>(segments);
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            snapshot.get(i).collect(query, limit, result);
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.retention-check-interval-ms:3600000}")
+    public void deleteExpiredSegments() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        List<AuditSegment> snapshot = new ArrayList<>(segments);
+        // Never the last segment, which the writer owns
+        for (AuditSegment segment : snapshot.subList(0, Math.max(0, snapshot.size() - 1))) {
+            if (segment.getMaxTimestamp() < cutoff) {
+                segments.remove(segment);
+                try {
+                    segment.delete();
+                    logger.info("Deleted audit segment {} past the {} day retention", segment.getPath().getFileName(),
+                            retentionDays);
+                } catch (IOException e) {
+                    logger.warn("Could not delete audit segment {}", segment.getPath(), e);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("segments", segments.size());
+        statistics.put("records", segments.stream().mapToLong(AuditSegment::getRecordCount).sum());
+        statistics.put("bytes", segments.stream().mapToLong(AuditSegment::getCommittedBytes).sum());
+        statistics.put("queued", queued.get());
+        statistics.put("written", written.sum());
+        statistics.put("dropped", dropped.sum());
+        statistics.put("fsyncs", fsyncs.sum());
+        return statistics;
+    }
+}
@@ -0,0 +1,376 @@
+package com.smartcity.service;
+
+import com.smartcity.dto.AuditEntry;
+import com.smartcity.security.TenantContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the audit log. Records are appended back to back as
+ * [body length][CRC32 of body][body]; the body holds sequence, timestamp, actor, action, entity,
+ * detail and city. Records written before the city was added end after the detail and belong
+ * to the default city, the only one there was. The file is mapped at its full size up front, so the unwritten tail reads as
+ * zeros and recovery stops at the first zero length or bad checksum.
+ *
+ * Only the audit writer thread appends. Readers see records up to the last fsync and find them
+ * through in-memory offset lists per actor and per entity, rebuilt by scanning when the
+ * segment is opened.
+ */
+class AuditSegment {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BODY_BYTES = 8 + 8 + 8 + 1 + 8 + 2 + 2;
+    private static final long NONE = -1;
+
+    static final int MAX_EMAIL_CHARS = 255;
+    static final int MAX_DETAIL_CHARS = 500;
+    static final int MAX_CITY_CHARS = 32;
+
+    private static final AuditAction[] ACTIONS = AuditAction.values();
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean writable;
+
+    // Writer thread only
+    private int writePosition;
+    private int forcedPosition;
+    private final ByteBuffer scratch = ByteBuffer.allocate(FIXED_BODY_BYTES + 2
+            + 4 * (MAX_EMAIL_CHARS + MAX_DETAIL_CHARS + MAX_CITY_CHARS));
+    private final CRC32 crc = new CRC32();
+
+    // Records below this offset are durable and visible to readers
+    private volatile int committed;
+
+    private volatile long lastSequence = NONE;
+
+    // Guarded by this
+    private final IntList offsets = new IntList();
+    private final Map<Long, IntList> byActor = new HashMap<>();
+    private final Map<String, IntList> byEntity = new HashMap<>();
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    private AuditSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer, boolean writable) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writable = writable;
+    }
+
+    static Path fileName(Path directory, long firstSequence) {
+        return directory.resolve(String.format("audit-%020d.seg", firstSequence));
+    }
+
+    static long parseFirstSequence(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("audit-") || !name.endsWith(".seg")) {
+            return NONE;
+        }
+        try {
+            return Long.parseLong(name.substring("audit-".length(), name.length() - ".seg".length()));
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+    }
+
+    static AuditSegment create(Path directory, long firstSequence, int capacity) throws IOException {
+        Path path = fileName(directory, firstSequence);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new AuditSegment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), true);
+    }
+
+    /**
+     * Opens an existing segment and indexes its records. A writable segment continues after the
+     * last intact record; anything after it (a record torn by a crash) is zeroed.
+     */
+    static AuditSegment open(Path path, int capacity, boolean writable) throws IOException {
+        long firstSequence = parseFirstSequence(path);
+        FileChannel channel;
+        MappedByteBuffer buffer;
+        if (writable) {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        } else {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        AuditSegment segment = new AuditSegment(path, firstSequence, channel, buffer, writable);
+        segment.recover();
+        return segment;
+    }
+
+    private void recover() {
+        int position = 0;
+        CRC32 check = new CRC32();
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < FIXED_BODY_BYTES || position + HEADER_BYTES + length > buffer.capacity()
+                    || checksum(check, position + HEADER_BYTES, length) != buffer.getInt(position + 4)) {
+                if (writable) {
+                    // Torn write at the tail: clear it so the next scan stops at the same place
+                    byte[] zeros = new byte[64 * 1024];
+                    for (int i = position; i < buffer.capacity(); i += zeros.length) {
+                        buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.capacity() - i));
+                    }
+                    buffer.force();
+                }
+                break;
+            }
+            index(position);
+            lastSequence = buffer.getLong(position + HEADER_BYTES);
+            position += HEADER_BYTES + length;
+        }
+        writePosition = position;
+        forcedPosition = position;
+        committed = position;
+    }
+
+    private int checksum(CRC32 check, int offset, int length) {
+        check.reset();
+        check.update(buffer.slice(offset, length));
+        return (int) check.getValue();
+    }
+
+    /**
+     * Writes one record; returns false without writing when the segment has no room left.
+     */
+    boolean append(long sequence, AuditLog.Event event) {
+        byte[] email = truncate(event.actorEmail(), MAX_EMAIL_CHARS);
+        byte[] detail = truncate(event.detail(), MAX_DETAIL_CHARS);
+        byte[] city = truncate(event.cityId(), MAX_CITY_CHARS);
+        scratch.clear();
+        scratch.putLong(sequence)
+                .putLong(event.timestamp())
+                .putLong(event.actorId() != null ? event.actorId() : NONE)
+                .put((byte) event.action().ordinal())
+                .putLong(event.entityId() != null ? event.entityId() : NONE)
+                .putShort((short) email.length).put(email)
+                .putShort((short) detail.length).put(detail)
+                .putShort((short) city.length).put(city);
+        int length = scratch.position();
+        if (writePosition + HEADER_BYTES + length > buffer.capacity()) {
+            return false;
+        }
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+        buffer.put(writePosition + HEADER_BYTES, scratch.array(), 0, length);
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        // Length last, so a record is never seen with a length but without its body
+        buffer.putInt(writePosition, length);
+        index(writePosition);
+        lastSequence = sequence;
+        writePosition += HEADER_BYTES + length;
+        return true;
+    }
+
+    /**
+     * Flushes the records written since the last call to disk and makes them visible to readers.
+     */
+    void force() {
+        if (writePosition > forcedPosition) {
+            buffer.force(forcedPosition, writePosition - forcedPosition);
+            forcedPosition = writePosition;
+            committed = writePosition;
+        }
+    }
+
+    private static byte[] truncate(String value, int maxChars) {
+        if (value == null) {
+            return new byte[0];
+        }
+        return (value.length() > maxChars ? value.substring(0, maxChars) : value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void index(int offset) {
+        int body = offset + HEADER_BYTES;
+        long timestamp = buffer.getLong(body + 8);
+        long actorId = buffer.getLong(body + 16);
+        AuditAction action = ACTIONS[buffer.get(body + 24)];
+        long entityId = buffer.getLong(body + 25);
+        synchronized (this) {
+            offsets.add(offset);
+            if (actorId != NONE) {
+                byActor.computeIfAbsent(actorId, key -> new IntList()).add(offset);
+            }
+            if (entityId != NONE) {
+                byEntity.computeIfAbsent(entityKey(action.getEntityType(), entityId), key -> new IntList()).add(offset);
+            }
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+    }
+
+    private static String entityKey(String entityType, long entityId) {
+        return entityType + ':' + entityId;
+    }
+
+    /**
+     * Adds matching records to the result, newest first, until it holds limit entries. Uses the
+     * entity or actor offset list when the query names one, otherwise walks every record.
+     */
+    void collect(AuditLog.Query query, int limit, List<AuditEntry> result) {
+        int[] candidates;
+        int count;
+        synchronized (this) {
+            if (offsets.size() == 0 || maxTimestamp < query.fromMillis() || minTimestamp > query.toMillis()) {
+                return;
+            }
+            IntList list;
+            if (query.entityType() != null && query.entityId() != null) {
+                list = byEntity.get(entityKey(query.entityType(), query.entityId()));
+            } else if (query.actorId() != null) {
+                list = byActor.get(query.actorId());
+            } else {
+                list = offsets;
+            }
+            if (list == null) {
+                return;
+            }
+            // The list only grows by appending past count or by copying, so the array can be read unlocked
+            candidates = list.values;
+            count = list.size;
+        }
+        int visible = committed;
+        for (int i = count - 1; i >= 0 && result.size() < limit; i--) {
+            if (candidates[i] < visible && matches(candidates[i], query)) {
+                result.add(read(candidates[i]));
+            }
+        }
+    }
+
+    private boolean matches(int offset, AuditLog.Query query) {
+        int body = offset + HEADER_BYTES;
+        long timestamp = buffer.getLong(body + 8);
+        long actorId = buffer.getLong(body + 16);
+        AuditAction action = ACTIONS[buffer.get(body + 24)];
+        long entityId = buffer.getLong(body + 25);
+        return timestamp >= query.fromMillis() && timestamp <= query.toMillis()
+                && (query.cityId() == null || query.cityId().equals(readCity(offset)))
+                && (query.actorId() == null || query.actorId() == actorId)
+                && (query.entityType() == null || query.entityType().equalsIgnoreCase(action.getEntityType()))
+                && (query.entityId() == null || query.entityId() == entityId)
+                && (query.action() == null || query.action() == action);
+    }
+
+    private AuditEntry read(int offset) {
+        int body = offset + HEADER_BYTES;
+        long actorId = buffer.getLong(body + 16);
+        AuditAction action = ACTIONS[buffer.get(body + 24)];
+        long entityId = buffer.getLong(body + 25);
+        int position = body + 33;
+        int emailLength = buffer.getShort(position) & 0xFFFF;
+        String email = readString(position + 2, emailLength);
+        position += 2 + emailLength;
+        String detail = readString(position + 2, buffer.getShort(position) & 0xFFFF);
+        return new AuditEntry(
+                buffer.getLong(body),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(body + 8)), ZoneId.systemDefault()),
+                readCity(offset),
+                actorId != NONE ? actorId : null,
+                email.isEmpty() ? null : email,
+                action,
+                action.getEntityType(),
+                entityId != NONE ? entityId : null,
+                detail.isEmpty() ? null : detail);
+    }
+
+    /**
+     * City the action was taken in, or null for actions outside of any city.
+     */
+    private String readCity(int offset) {
+        int body = offset + HEADER_BYTES;
+        int end = body + buffer.getInt(offset);
+        int position = body + 33;
+        position += 2 + (buffer.getShort(position) & 0xFFFF);
+        position += 2 + (buffer.getShort(position) & 0xFFFF);
+        if (position >= end) {
+            return TenantContext.DEFAULT_CITY;
+        }
+        int length = buffer.getShort(position) & 0xFFFF;
+        return length > 0 ? readString(position + 2, length) : null;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Sequence of the last record written, or -1 when the segment is empty.
+     */
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    synchronized long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    synchronized int getRecordCount() {
+        return offsets.size();
+    }
+
+    int getCommittedBytes() {
+        return committed;
+    }
+
+    void close() throws IOException {
+        if (writable) {
+            force();
+        }
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
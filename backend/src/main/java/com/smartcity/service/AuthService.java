@@ -4,16 +4,19 @@ import com.smartcity.dto.JwtResponse;
 import com.smartcity.dto.LoginRequest;
 import com.smartcity.dto.SignupRequest;
 import com.smartcity.entity.User;
+import com.smartcity.exception.ConflictException;
 import com.smartcity.repository.UserRepository;
 import com.smartcity.security.JwtUtils;
 import com.smartcity.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuthService {
@@ -30,6 +33,12 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private EmailAvailabilityService emailAvailabilityService;
+
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
@@ -42,12 +51,17 @@ public class AuthService {
         String role = userDetails.getAuthorities().iterator().next().getAuthority().replace("ROLE_", "");
 
         return new JwtResponse(jwt, userDetails.getId(), userDetails.getName(),
-                userDetails.getEmail(), role);
+                userDetails.getEmail(), role, userDetails.getCityId());
     }
 
+    public boolean isEmailAvailable(String email) {
+        return !emailAvailabilityService.isEmailTaken(email);
+    }
+
+    @Transactional
     public String registerUser(SignupRequest signupRequest) {
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new RuntimeException("Error: Email is already in use!");
+        if (emailAvailabilityService.isEmailTaken(signupRequest.getEmail())) {
+            throw new ConflictException("Error: Email is already in use!");
         }
 
         User user = new User();
@@ -63,7 +77,15 @@ public class AuthService {
             throw new RuntimeException("Error: Invalid role provided!");
         }
 
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Another signup for the same address won the race past the availability check
+            throw new ConflictException("Error: Email is already in use!");
+        }
+        emailAvailabilityService.add(user.getCityId(), user.getEmail());
+        // Other instances may have cached a negative existsByEmail result for this address
+        cacheInvalidationBus.publish(CacheInvalidationBus.USERS, user.getId());
         return "User registered successfully!";
     }
 }
@@ -0,0 +1,297 @@
+package com.smartcity.service;
+
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.entity.CacheInvalidation;
+import com.smartcity.entity.CityNews;
+import com.smartcity.entity.CityService;
+import com.smartcity.entity.EmergencyService;
+import com.smartcity.entity.User;
+import com.smartcity.repository.CacheInvalidationRepository;
+import com.smartcity.security.TenantContext;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps in-process caches consistent across backend instances using only the database.
+ * Writers append a row to cache_invalidations in the same transaction as their change, and
+ * every instance polls the table with an id cursor and evicts what other instances changed.
+ *
+ * Identity ids become visible in commit order only roughly, so the cursor only moves past rows
+ * older than the grace window; newer rows are read again on the next poll and skipped if they
+ * were already applied. A writer whose transaction stays open longer than the grace window can
+ * still be missed, which bounds staleness by the second-level cache TTLs in caffeine.conf.
+ *
+ * Polling has a thread of its own rather than sharing the scheduler with the export, archive
+ * and flush jobs, so another instance's change is applied within one poll interval plus the
+ * time of one poll. Listeners told that a whole region changed rebuild from the database; they
+ * are notified on a second thread so a rebuild never holds up the poll.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    public static final String USERS = "users";
+    public static final String CITY_SERVICES = "city-services";
+    public static final String EMERGENCY_SERVICES = "emergency-services";
+    public static final String CITY_NEWS = "city-news";
+    public static final String USER_COMPLAINTS = "user-complaints";
+    public static final String USER_NOTIFICATIONS = "user-notifications";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final Map<String, Class<?>> ENTITY_REGIONS = Map.of(
+            USERS, User.class,
+            CITY_SERVICES, CityService.class,
+            EMERGENCY_SERVICES, EmergencyService.class,
+            CITY_NEWS, CityNews.class);
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @Autowired(required = false)
+    private List<CacheInvalidationListener> listeners = List.of();
+
+    @Value("${cache-invalidation.node-id:${random.uuid}}")
+    private String nodeId;
+
+    @Value("${cache-invalidation.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${cache-invalidation.grace-ms:10000}")
+    private long graceMillis;
+
+    @Value("${cache-invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache-invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Only touched from the polling thread
+    private Long cursor;
+
+    private final Set<Long> appliedAfterCursor = new HashSet<>();
+
+    private ScheduledExecutorService poller;
+
+    private ExecutorService rebuilds;
+
+    // Regions whose full invalidation is queued for the listeners; a second one before it runs adds nothing
+    private final Set<String> queuedRebuilds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private volatile LocalDateTime lastPollAt;
+
+    @Transactional
+    public void publish(String region, Object key) {
+        String entityKey = key != null ? key.toString() : null;
+        cacheInvalidationRepository.save(
+                new CacheInvalidation(null, region, entityKey, TenantContext.getCurrentCity(), nodeId,
+                        LocalDateTime.now()));
+
+        // Hibernate already keeps this instance's second-level cache current for changes made
+        // through it; a whole-region change is a bulk write it has not seen, so drop the region too.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocally(region, entityKey);
+                }
+            });
+        } else {
+            applyLocally(region, entityKey);
+        }
+    }
+
+    /**
+     * Drops this instance's cached entities and queries of a region after rows were written
+     * behind Hibernate's back, e.g. with JdbcTemplate. Query results are only invalidated through
+     * update timestamps Hibernate keeps for its own writes, so a cached empty lookup would
+     * otherwise outlive the rows that now match it.
+     */
+    public void evictLocally(String region) {
+        Class<?> entityClass = ENTITY_REGIONS.get(region);
+        if (entityClass != null) {
+            entityManagerFactory.getCache().evict(entityClass);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilds = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "cache-invalidation-rebuild"));
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "cache-invalidation-poll"));
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                // A failed poll is retried from the same cursor; the executor would stop on a throw
+                logger.warn("Polling cache invalidations failed", e);
+            }
+        }, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (poller != null) {
+            poller.shutdownNow();
+            rebuilds.shutdownNow();
+        }
+    }
+
+    public void poll() {
+        // On the primary: a replica further behind than the grace window would let the cursor
+        // move past rows it has not received yet
+        if (cursor == null) {
+            // Nothing older than this instance can be cached in it
+            cursor = primaryReads.call(cacheInvalidationRepository::findMaxId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minus(Duration.ofMillis(graceMillis));
+        long from = cursor;
+        List<CacheInvalidation> changes = primaryReads.call(() ->
+                cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(from, PageRequest.of(0, batchSize)));
+
+        boolean settled = true;
+        for (CacheInvalidation change : changes) {
+            if (appliedAfterCursor.add(change.getId()) && !nodeId.equals(change.getSourceNode())) {
+                apply(change.getRegion(), change.getEntityKey(), change.getCityId());
+                recordLag(Duration.between(change.getCreatedAt(), now).toMillis());
+            }
+            settled = settled && change.getCreatedAt().isBefore(settledBefore);
+            if (settled) {
+                cursor = change.getId();
+            }
+        }
+        long settledCursor = cursor;
+        appliedAfterCursor.removeIf(id -> id <= settledCursor);
+        lastPollAt = now;
+    }
+
+    @Scheduled(fixedDelayString = "${cache-invalidation.purge-interval-ms:600000}",
+            initialDelayString = "${cache-invalidation.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeOld() {
+        int removed = cacheInvalidationRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (removed > 0) {
+            logger.debug("Purged {} old cache invalidations", removed);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long applied = appliedCount.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("nodeId", nodeId);
+        statistics.put("cursor", cursor);
+        statistics.put("lastPollAt", lastPollAt);
+        statistics.put("applied", applied);
+        statistics.put("lastLagMs", lastLagMillis.get());
+        statistics.put("averageLagMs", applied > 0 ? totalLagMillis.get() / applied : 0);
+        statistics.put("maxLagMs", maxLagMillis.get());
+        return statistics;
+    }
+
+    private void apply(String region, String key, String cityId) {
+        Class<?> entityClass = ENTITY_REGIONS.get(region);
+        if (entityClass != null) {
+            if (key != null && cityId != null) {
+                evict(entityClass, Long.valueOf(key), cityId);
+            } else {
+                entityManagerFactory.getCache().evict(entityClass);
+            }
+            // Query results are only invalidated through update timestamps kept in memory,
+            // so another instance's change makes every cached query suspect.
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+        if (key != null) {
+            notifyListeners(region, key);
+        } else if (queuedRebuilds.add(region)) {
+            rebuilds.execute(() -> {
+                queuedRebuilds.remove(region);
+                notifyListeners(region, null);
+            });
+        }
+    }
+
+    private void evict(Class<?> entityClass, Long id, String cityId) {
+        // Second-level cache keys include the tenant, which Cache.evict(Class, Object) leaves out,
+        // so remove the entry as cached by sessions of the writer's city and by background work
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        for (String tenant : List.of(cityId, TenantContext.ALL_CITIES)) {
+            access.evict(access.generateCacheKey(id, persister, sessionFactory, tenant));
+        }
+    }
+
+    private void applyLocally(String region, String key) {
+        if (key == null) {
+            evictLocally(region);
+        }
+        notifyListeners(region, key);
+    }
+
+    private void notifyListeners(String region, String key) {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(region, key);
+            } catch (RuntimeException e) {
+                logger.warn("Cache invalidation listener {} failed for {}", listener.getClass().getSimpleName(), region, e);
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void recordLag(long lagMillis) {
+        appliedCount.incrementAndGet();
+        totalLagMillis.addAndGet(lagMillis);
+        lastLagMillis.set(lagMillis);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+    }
+}
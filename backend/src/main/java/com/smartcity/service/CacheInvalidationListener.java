@@ -0,0 +1,10 @@
+package com.smartcity.service;
+
+/**
+ * Implemented by beans that keep in-process copies of data and must drop them when another
+ * instance (or this one) changes it. A null key means the whole region changed.
+ */
+public interface CacheInvalidationListener {
+
+    void onInvalidation(String region, String key);
+}
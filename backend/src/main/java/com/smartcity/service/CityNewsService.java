@@ -1,10 +1,14 @@
 package com.smartcity.service;
 
+import com.smartcity.dto.NewsSummary;
 import com.smartcity.entity.CityNews;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.CityNewsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,20 +18,40 @@ public class CityNewsService {
     @Autowired
     private CityNewsRepository cityNewsRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Transactional
     public CityNews createNews(CityNews cityNews) {
-        return cityNewsRepository.save(cityNews);
+        CityNews saved = cityNewsRepository.save(cityNews);
+        cacheInvalidationBus.publish(CacheInvalidationBus.CITY_NEWS, saved.getId());
+        auditLog.record(AuditAction.NEWS_CREATED, saved.getId(), saved.getTitle());
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<CityNews> getAllNews() {
         return cityNewsRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
     }
 
+    @Transactional(readOnly = true)
+    public List<NewsSummary> getAllNewsSummaries() {
+        return cityNewsRepository.findLatestSummaries(Pageable.unpaged());
+    }
+
+    @Transactional(readOnly = true)
     public CityNews getNewsById(Long id) {
         return cityNewsRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("News not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("News", id));
     }
 
+    @Transactional
     public void deleteNews(Long id) {
         cityNewsRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.CITY_NEWS, id);
+        auditLog.record(AuditAction.NEWS_DELETED, id, null);
     }
 }
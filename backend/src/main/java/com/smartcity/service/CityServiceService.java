@@ -1,9 +1,11 @@
 package com.smartcity.service;
 
 import com.smartcity.entity.CityService;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.CityServiceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,20 +15,35 @@ public class CityServiceService {
     @Autowired
     private CityServiceRepository cityServiceRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Transactional
     public CityService createCityService(CityService cityService) {
-        return cityServiceRepository.save(cityService);
+        CityService saved = cityServiceRepository.save(cityService);
+        cacheInvalidationBus.publish(CacheInvalidationBus.CITY_SERVICES, saved.getId());
+        auditLog.record(AuditAction.CITY_SERVICE_CREATED, saved.getId(), saved.getName());
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<CityService> getAllCityServices() {
         return cityServiceRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public CityService getCityServiceById(Long id) {
         return cityServiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("City Service not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("City Service", id));
     }
 
+    @Transactional
     public void deleteCityService(Long id) {
         cityServiceRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.CITY_SERVICES, id);
+        auditLog.record(AuditAction.CITY_SERVICE_DELETED, id, null);
     }
 }
@@ -0,0 +1,137 @@
+package com.smartcity.service;
+
+import com.smartcity.entity.ArchivedComplaint;
+import com.smartcity.repository.ArchivedComplaintRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves resolved complaints that have not changed for complaint-archive.min-age-days into
+ * complaints_archive. Each chunk is copied and deleted in its own short transaction, so the
+ * job never holds locks on more than chunk-size live rows and can stop at any point.
+ */
+@Service
+public class ComplaintArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComplaintArchiveService.class);
+
+    private static final String SELECT_CHUNK =
+            "SELECT id FROM complaints WHERE status = 'RESOLVED' AND updated_at < :cutoff "
+                    + "ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private static final String COPY_CHUNK =
+            "INSERT INTO complaints_archive (id, city_id, title, description, category, status, created_at, "
+                    + "updated_at, first_response_at, user_id, archive_month, archived_at) "
+                    + "SELECT id, city_id, title, description, category, status, created_at, updated_at, "
+                    + "first_response_at, user_id, YEAR(updated_at) * 100 + MONTH(updated_at), :archivedAt "
+                    + "FROM complaints WHERE id IN (:ids)";
+
+    private static final String DELETE_CHUNK = "DELETE FROM complaints WHERE id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ArchivedComplaintRepository archivedComplaintRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${complaint-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${complaint-archive.min-age-days:180}")
+    private long minAgeDays;
+
+    @Value("${complaint-archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${complaint-archive.pause-ms:100}")
+    private long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${complaint-archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveResolvedComplaints();
+        }
+    }
+
+    public int archiveResolvedComplaints() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Complaint archival is already running");
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+            int total = 0;
+            int moved;
+            do {
+                moved = archiveChunk(cutoff);
+                total += moved;
+                if (moved > 0) {
+                    // Owners' complaint lists shrank; their ETags must change
+                    cacheInvalidationBus.publish(CacheInvalidationBus.USER_COMPLAINTS, null);
+                }
+                if (moved == chunkSize && pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            } while (moved == chunkSize);
+            if (total > 0) {
+                logger.info("Archived {} resolved complaints last updated before {}", total, cutoff);
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedComplaint> getArchivedComplaints(Integer archiveMonth, Pageable pageable) {
+        return archiveMonth != null
+                ? archivedComplaintRepository.findByArchiveMonth(archiveMonth, pageable)
+                : archivedComplaintRepository.findAll(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedComplaint> getArchivedComplaintsByUserId(Long userId, Pageable pageable) {
+        return archivedComplaintRepository.findByUserId(userId, pageable);
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_CHUNK,
+                    new MapSqlParameterSource("cutoff", cutoff).addValue("limit", chunkSize), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("archivedAt", LocalDateTime.now());
+            jdbcTemplate.update(COPY_CHUNK, params);
+            jdbcTemplate.update(DELETE_CHUNK, params);
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
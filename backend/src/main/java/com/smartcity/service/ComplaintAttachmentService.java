@@ -0,0 +1,91 @@
+package com.smartcity.service;
+
+import com.smartcity.entity.ComplaintAttachment;
+import com.smartcity.exception.InvalidAttachmentException;
+import com.smartcity.exception.ResourceNotFoundException;
+import com.smartcity.repository.ArchivedComplaintRepository;
+import com.smartcity.repository.ComplaintAttachmentRepository;
+import com.smartcity.repository.ComplaintRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@Service
+public class ComplaintAttachmentService {
+
+    @Autowired
+    private ComplaintAttachmentRepository complaintAttachmentRepository;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ArchivedComplaintRepository archivedComplaintRepository;
+
+    @Autowired
+    private AttachmentStorage attachmentStorage;
+
+    @Value("${attachments.max-per-complaint:10}")
+    private long maxPerComplaint;
+
+    @Transactional
+    public ComplaintAttachment addAttachment(Long complaintId, MultipartFile file) {
+        if (!complaintRepository.existsById(complaintId)) {
+            throw new ResourceNotFoundException("Complaint", complaintId);
+        }
+        if (file.isEmpty()) {
+            throw new InvalidAttachmentException(HttpStatus.BAD_REQUEST, "Error: Attachment is empty!");
+        }
+        if (complaintAttachmentRepository.countByComplaintId(complaintId) >= maxPerComplaint) {
+            throw new InvalidAttachmentException(HttpStatus.BAD_REQUEST,
+                    "Error: A complaint can have at most " + maxPerComplaint + " attachments!");
+        }
+
+        AttachmentStorage.StoredFile stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = attachmentStorage.store(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error: Could not store attachment", e);
+        }
+        attachmentStorage.generateThumbnailAsync(stored.hash());
+
+        return complaintAttachmentRepository.findByComplaintIdAndContentHash(complaintId, stored.hash())
+                .orElseGet(() -> complaintAttachmentRepository.save(new ComplaintAttachment(null, complaintId,
+                        stored.hash(), stored.contentType(), originalFilename(file), stored.size(), null)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ComplaintAttachment> getAttachments(Long complaintId) {
+        // Attachments carry no city of their own; the complaint, live or archived, decides who may
+        // see them
+        if (!complaintRepository.existsById(complaintId) && !archivedComplaintRepository.existsById(complaintId)) {
+            throw new ResourceNotFoundException("Complaint", complaintId);
+        }
+        return complaintAttachmentRepository.findByComplaintIdOrderByIdAsc(complaintId);
+    }
+
+    @Transactional(readOnly = true)
+    public String getContentType(String hash) {
+        return complaintAttachmentRepository.findContentTypesByContentHash(hash, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "hash", hash));
+    }
+
+    private static String originalFilename(MultipartFile file) {
+        String name = StringUtils.getFilename(file.getOriginalFilename());
+        if (name == null) {
+            return null;
+        }
+        return name.length() > 255 ? name.substring(name.length() - 255) : name;
+    }
+}
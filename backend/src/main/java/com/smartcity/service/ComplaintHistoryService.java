@@ -0,0 +1,156 @@
+package com.smartcity.service;
+
+import com.smartcity.dto.ComplaintTimeline;
+import com.smartcity.entity.ArchivedComplaint;
+import com.smartcity.entity.Complaint;
+import com.smartcity.entity.ComplaintStatusChange;
+import com.smartcity.exception.ResourceNotFoundException;
+import com.smartcity.repository.ArchivedComplaintRepository;
+import com.smartcity.repository.ComplaintRepository;
+import com.smartcity.repository.ComplaintStatusChangeRepository;
+import com.smartcity.security.TenantContext;
+import com.smartcity.security.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only history of complaint status transitions and the timelines built from it. A
+ * timeline starts with the status the complaint was created in (or imported with) at its
+ * creation time, followed by one stage per recorded transition.
+ */
+@Service
+public class ComplaintHistoryService {
+
+    @Autowired
+    private ComplaintStatusChangeRepository complaintStatusChangeRepository;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ArchivedComplaintRepository archivedComplaintRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Called inside the transaction that changes the status, so the history row commits or rolls
+     * back together with the change. Updates that keep the status are not transitions.
+     */
+    public void recordStatusChange(Complaint complaint, Complaint.Status previous, LocalDateTime now) {
+        if (previous == complaint.getStatus()) {
+            return;
+        }
+        Long actorId = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            actorId = user.getId();
+        }
+        complaintStatusChangeRepository.save(new ComplaintStatusChange(null, null, complaint.getId(), previous,
+                complaint.getStatus(), now, actorId));
+    }
+
+    /**
+     * Archived complaints keep their status changes, so their timelines are built from the archive row.
+     */
+    @Transactional(readOnly = true)
+    public ComplaintTimeline getTimeline(Long complaintId) {
+        List<ComplaintStatusChange> changes = complaintStatusChangeRepository.findByComplaintIdOrderByIdAsc(complaintId);
+        Complaint complaint = complaintRepository.findById(complaintId).orElse(null);
+        if (complaint != null) {
+            return timeline(complaint.getId(), complaint.getStatus(), complaint.getCreatedAt(), changes);
+        }
+        ArchivedComplaint archived = archivedComplaintRepository.findById(complaintId)
+                .orElseThrow(() -> new ResourceNotFoundException("Complaint", complaintId));
+        return timeline(archived.getId(), archived.getStatus(), archived.getCreatedAt(), changes);
+    }
+
+    /**
+     * Timelines of one page of complaints, newest first, in one statement: the page is a derived
+     * table joined to its status changes, one row per change (or one row for a complaint without
+     * any), ordered so each complaint's changes arrive together and oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ComplaintTimeline> getRecentTimelines(int page, int size) {
+        // Native SQL is not limited to the current city by Hibernate, so the city is a condition here
+        String city = TenantContext.getCurrentCity();
+        String sql = "SELECT c.id, c.status, c.created_at, h.from_status, h.to_status, h.changed_at, h.changed_by "
+                + "FROM (SELECT id, city_id, status, created_at FROM complaints"
+                + (city != null ? " WHERE city_id = :city" : "")
+                + " ORDER BY created_at DESC, id DESC LIMIT :limit OFFSET :offset) c "
+                + "LEFT JOIN complaint_status_changes h ON h.city_id = c.city_id AND h.complaint_id = c.id "
+                + "ORDER BY c.created_at DESC, c.id DESC, h.id";
+        MapSqlParameterSource parameters = new MapSqlParameterSource("city", city)
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+
+        Complaint.Status[] statuses = Complaint.Status.values();
+        return jdbcTemplate.query(sql, parameters, rs -> {
+            List<ComplaintTimeline> timelines = new ArrayList<>(size);
+            List<ComplaintStatusChange> changes = new ArrayList<>();
+            long complaintId = -1;
+            Complaint.Status status = null;
+            LocalDateTime createdAt = null;
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                if (id != complaintId) {
+                    if (complaintId >= 0) {
+                        timelines.add(timeline(complaintId, status, createdAt, List.copyOf(changes)));
+                        changes.clear();
+                    }
+                    complaintId = id;
+                    status = Complaint.Status.valueOf(rs.getString(2));
+                    createdAt = toLocalDateTime(rs.getTimestamp(3));
+                }
+                int fromStatus = rs.getInt(4);
+                if (rs.wasNull()) {
+                    // The left join's row for a complaint without changes
+                    continue;
+                }
+                int toStatus = rs.getInt(5);
+                LocalDateTime changedAt = toLocalDateTime(rs.getTimestamp(6));
+                long changedBy = rs.getLong(7);
+                changes.add(new ComplaintStatusChange(null, null, id, statuses[fromStatus], statuses[toStatus],
+                        changedAt, rs.wasNull() ? null : changedBy));
+            }
+            if (complaintId >= 0) {
+                timelines.add(timeline(complaintId, status, createdAt, changes));
+            }
+            return timelines;
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static ComplaintTimeline timeline(Long complaintId, Complaint.Status status, LocalDateTime createdAt,
+                                              List<ComplaintStatusChange> changes) {
+        List<ComplaintTimeline.Stage> stages = new ArrayList<>(changes.size() + 1);
+        Complaint.Status initial = changes.isEmpty() ? status : changes.get(0).getFromStatus();
+        ComplaintTimeline.Stage current = new ComplaintTimeline.Stage(initial, createdAt, null, null);
+        stages.add(current);
+        for (ComplaintStatusChange change : changes) {
+            current.setSeconds(seconds(current.getSince(), change.getChangedAt()));
+            current = new ComplaintTimeline.Stage(change.getToStatus(), change.getChangedAt(), null,
+                    change.getChangedBy());
+            stages.add(current);
+        }
+        return new ComplaintTimeline(complaintId, status, stages);
+    }
+
+    private static Long seconds(LocalDateTime from, LocalDateTime to) {
+        return from != null && to != null ? Math.max(0, Duration.between(from, to).toSeconds()) : null;
+    }
+}
@@ -0,0 +1,190 @@
+package com.smartcity.service;
+
+import com.smartcity.entity.Complaint;
+import com.smartcity.entity.ImportJob;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports historical complaints. Records name their owner by user_email or user_id and carry
+ * title, description, category, status (PENDING when empty) and optional ISO timestamps
+ * created_at, updated_at and first_response_at. Ids are reserved in blocks from the same
+ * id_generators row Hibernate uses, so imported and newly created complaints never collide.
+ */
+@Service
+public class ComplaintImportWriter implements ImportWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO complaints (id, city_id, title, description, category, status, created_at, updated_at, "
+                    + "first_response_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Must match the allocationSize of complaint_id_generator
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private TransactionTemplate reservationTemplate;
+
+    @PostConstruct
+    public void init() {
+        // Ids are reserved in a short transaction of their own so the generator row is not
+        // locked for the whole chunk while ordinary complaints are being created
+        reservationTemplate = new TransactionTemplate(transactionManager);
+        reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public ImportJob.Type getType() {
+        return ImportJob.Type.COMPLAINTS;
+    }
+
+    @Override
+    public String getInsertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    public List<Row> prepare(String cityId, List<SourceRecord> records, List<Rejection> rejections) {
+        List<SourceRecord> valid = new ArrayList<>(records.size());
+        List<Object[]> values = new ArrayList<>(records.size());
+        Set<String> emails = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (SourceRecord record : records) {
+            Map<String, String> fields = record.fields();
+            try {
+                String title = required(fields, "title", 255);
+                String description = required(fields, "description", 1000);
+                String category = required(fields, "category", 255);
+                String status = fields.get("status");
+                Complaint.Status parsedStatus = status == null || status.isBlank()
+                        ? Complaint.Status.PENDING
+                        : Complaint.Status.valueOf(status.trim().toUpperCase(Locale.ROOT));
+                LocalDateTime createdAt = timestamp(fields, "created_at");
+                if (createdAt == null) {
+                    createdAt = LocalDateTime.now();
+                }
+                LocalDateTime updatedAt = timestamp(fields, "updated_at");
+                LocalDateTime firstResponseAt = timestamp(fields, "first_response_at");
+
+                Object owner;
+                String email = fields.get("user_email");
+                if (email != null && !email.isBlank()) {
+                    owner = email.trim().toLowerCase(Locale.ROOT);
+                    emails.add((String) owner);
+                } else {
+                    owner = Long.valueOf(required(fields, "user_id", 20));
+                    userIds.add((Long) owner);
+                }
+                valid.add(record);
+                values.add(new Object[]{null, cityId, title, description, category, parsedStatus.name(), createdAt,
+                        updatedAt != null ? updatedAt : createdAt, firstResponseAt, owner});
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                rejections.add(new Rejection(record.number(), e.getMessage(), fields));
+            }
+        }
+
+        Map<String, Long> usersByEmail = new HashMap<>();
+        if (!emails.isEmpty()) {
+            jdbcTemplate.query("SELECT id, email FROM users WHERE city_id = :city AND email IN (:emails)",
+                    Map.of("city", cityId, "emails", emails),
+                    resultSet -> {
+                        usersByEmail.put(resultSet.getString(2).toLowerCase(Locale.ROOT), resultSet.getLong(1));
+                    });
+        }
+        Set<Long> existingIds = new HashSet<>();
+        if (!userIds.isEmpty()) {
+            existingIds.addAll(jdbcTemplate.queryForList("SELECT id FROM users WHERE city_id = :city AND id IN (:ids)",
+                    Map.of("city", cityId, "ids", userIds), Long.class));
+        }
+
+        List<Row> rows = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            SourceRecord record = valid.get(i);
+            Object[] row = values.get(i);
+            Long userId = row[9] instanceof String email ? usersByEmail.get(email)
+                    : existingIds.contains((Long) row[9]) ? (Long) row[9] : null;
+            if (userId == null) {
+                rejections.add(new Rejection(record.number(), "Unknown user", record.fields()));
+                continue;
+            }
+            row[9] = userId;
+            rows.add(new Row(record.number(), row));
+        }
+
+        long nextId = reserveIds(rows.size());
+        for (Row row : rows) {
+            row.values()[0] = nextId++;
+        }
+        return rows;
+    }
+
+    @Override
+    public void afterJob() {
+        // Owners' complaint lists changed without going through ComplaintService
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_COMPLAINTS, null);
+    }
+
+    /**
+     * Returns the first of count consecutive ids that no other writer will hand out.
+     */
+    private long reserveIds(int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        Long reserved = reservationTemplate.execute(status -> {
+            Long nextVal = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT next_val FROM id_generators WHERE sequence_name = 'complaints' FOR UPDATE", Long.class);
+            jdbcTemplate.getJdbcTemplate().update(
+                    "UPDATE id_generators SET next_val = ? WHERE sequence_name = 'complaints'",
+                    nextVal + blocks * ALLOCATION_SIZE);
+            return nextVal;
+        });
+        // The pooled optimizer hands out (next_val - allocationSize, next_val] for the next block it
+        // reads, so Hibernate has used ids up to the old next_val - allocationSize and continues
+        // after the new one minus allocationSize; everything in between belongs to this import.
+        return reserved - ALLOCATION_SIZE + 1;
+    }
+
+    private static String required(Map<String, String> fields, String name, int maxLength) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(name + " is longer than " + maxLength + " characters");
+        }
+        return value.trim();
+    }
+
+    private static LocalDateTime timestamp(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        // Accept both 2023-04-01T10:15:30 and the SQL style 2023-04-01 10:15:30
+        return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+    }
+}
@@ -1,12 +1,17 @@
 package com.smartcity.service;
 
+import com.smartcity.dto.ComplaintSummary;
 import com.smartcity.entity.Complaint;
 import com.smartcity.entity.User;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.ComplaintRepository;
 import com.smartcity.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -18,32 +23,76 @@ public class ComplaintService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ResolutionMetricsService resolutionMetricsService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private ComplaintHistoryService complaintHistoryService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Transactional
     public Complaint createComplaint(Complaint complaint, Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
         complaint.setUser(user);
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_COMPLAINTS, userId);
         return complaintRepository.save(complaint);
     }
 
+    @Transactional
+    public List<Complaint> createComplaints(List<Complaint> complaints, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+        complaints.forEach(complaint -> complaint.setUser(user));
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_COMPLAINTS, userId);
+        return complaintRepository.saveAll(complaints);
+    }
+
+    @Transactional(readOnly = true)
     public List<Complaint> getAllComplaints() {
         return complaintRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Complaint> getComplaintsByUserId(Long userId) {
         return complaintRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
+    public List<ComplaintSummary> getAllComplaintSummaries() {
+        return complaintRepository.findRecentSummaries(Pageable.unpaged());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ComplaintSummary> getComplaintSummariesByUserId(Long userId) {
+        return complaintRepository.findSummariesByUserId(userId, Pageable.unpaged());
+    }
+
+    @Transactional(readOnly = true)
     public Complaint getComplaintById(Long id) {
         return complaintRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Complaint not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Complaint", id));
     }
 
+    @Transactional
     public Complaint updateComplaintStatus(Long id, Complaint.Status status) {
         Complaint complaint = getComplaintById(id);
+        Complaint.Status previous = complaint.getStatus();
         complaint.setStatus(status);
+        LocalDateTime now = LocalDateTime.now();
+        resolutionMetricsService.recordStatusChange(complaint, previous, now);
+        complaintHistoryService.recordStatusChange(complaint, previous, now);
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_COMPLAINTS, complaint.getUser().getId());
+        auditLog.record(AuditAction.COMPLAINT_STATUS_CHANGED, id, previous + " -> " + status);
         return complaintRepository.save(complaint);
     }
 
+    @Transactional(readOnly = true)
     public List<Complaint> getComplaintsByStatus(Complaint.Status status) {
         return complaintRepository.findByStatus(status);
     }
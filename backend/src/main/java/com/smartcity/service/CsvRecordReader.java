@@ -0,0 +1,170 @@
+package com.smartcity.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader: comma separated, fields optionally quoted with double quotes
+ * (doubled inside quotes), records ended by LF or CRLF. Quoted fields may span lines. Only
+ * the current record is held in memory, and at most maxRecordChars of it: a stray quote would
+ * otherwise pull the rest of the file into one field.
+ */
+public class CsvRecordReader {
+
+    private static final int NONE = -2;
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    // Characters of a malformed record kept for the rejection report
+    private static final int PREVIEW_CHARS = 500;
+
+    private final Reader reader;
+
+    private final int maxRecordChars;
+
+    private int pushedBack = NONE;
+
+    private boolean started;
+
+    public CsvRecordReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Returns the fields of the next record, or null at the end of the input. Blank lines are skipped.
+     *
+     * @throws MalformedRecordException if the record is longer than maxRecordChars or its quoted
+     *         field is never closed; the rest of the line has been skipped and reading can go on
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int length = 0;
+        int c = read();
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new MalformedRecordException("Unterminated quoted field at end of input",
+                            preview(fields, field));
+                }
+                if (fieldStarted || !fields.isEmpty()) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                return null;
+            }
+            if (++length > maxRecordChars) {
+                String start = preview(fields, field);
+                if (c != '\n' && c != '\r') {
+                    skipLine();
+                }
+                throw new MalformedRecordException("Record longer than " + maxRecordChars + " characters", start);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                if (fieldStarted || !fields.isEmpty()) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // Blank line
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+            c = read();
+        }
+    }
+
+    // Resynchronizes on the next line break; quotes are not trusted once a record has gone wrong
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != '\n' && c != '\r');
+        if (c == '\r') {
+            int following = read();
+            if (following != '\n') {
+                unread(following);
+            }
+        }
+    }
+
+    private static String preview(List<String> fields, StringBuilder field) {
+        StringBuilder preview = new StringBuilder();
+        for (String value : fields) {
+            if (preview.length() >= PREVIEW_CHARS) {
+                break;
+            }
+            preview.append(value).append(',');
+        }
+        preview.append(field, 0, Math.min(field.length(), PREVIEW_CHARS));
+        return preview.length() > PREVIEW_CHARS ? preview.substring(0, PREVIEW_CHARS) : preview.toString();
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == BYTE_ORDER_MARK) {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    /**
+     * A record that was skipped rather than read. Carries the start of its text for the rejects file.
+     */
+    public static class MalformedRecordException extends IOException {
+
+        private final String start;
+
+        public MalformedRecordException(String message, String start) {
+            super(message);
+            this.start = start;
+        }
+
+        public String getStart() {
+            return start;
+        }
+    }
+}
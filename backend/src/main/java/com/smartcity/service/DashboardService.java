@@ -0,0 +1,195 @@
+package com.smartcity.service;
+
+import com.smartcity.config.RequestMeter;
+import com.smartcity.dto.ComplaintSummary;
+import com.smartcity.dto.DashboardResponse;
+import com.smartcity.dto.NewsSummary;
+import com.smartcity.dto.NotificationSummary;
+import com.smartcity.entity.CityService;
+import com.smartcity.entity.Complaint;
+import com.smartcity.entity.EmergencyService;
+import com.smartcity.repository.CityNewsRepository;
+import com.smartcity.repository.CityServiceRepository;
+import com.smartcity.repository.ComplaintRepository;
+import com.smartcity.repository.EmergencyServiceRepository;
+import com.smartcity.repository.NotificationRepository;
+import com.smartcity.repository.UserRepository;
+import com.smartcity.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard payload from independent read-only slices that run in parallel on a
+ * bounded pool. Identical slices requested at the same time (the shared lists, the admin
+ * statistics, or one user's own data) are loaded once and handed to every waiting request.
+ * Workers run with the caller's security context so read-your-writes routing still applies.
+ */
+@Service
+public class DashboardService {
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private CityNewsRepository cityNewsRepository;
+
+    @Autowired
+    private CityServiceRepository cityServiceRepository;
+
+    @Autowired
+    private EmergencyServiceRepository emergencyServiceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${dashboard.threads:8}")
+    private int threads;
+
+    @Value("${dashboard.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${dashboard.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${dashboard.list-size:10}")
+    private int listSize;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private ThreadPoolExecutor pool;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When the queue is full the request thread loads the slice itself, which slows
+        // callers down instead of failing them.
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public DashboardResponse getCitizenDashboard(Long userId) {
+        CompletableFuture<List<ComplaintSummary>> complaints = load("complaints:user:" + userId,
+                () -> List.copyOf(complaintRepository.findSummariesByUserId(userId, firstPage())));
+        CompletableFuture<List<NotificationSummary>> notifications = load("notifications:user:" + userId,
+                () -> List.copyOf(notificationRepository.findSummariesByUserId(userId, firstPage())));
+        CompletableFuture<List<NewsSummary>> news = loadNews();
+        CompletableFuture<List<CityService>> cityServices = loadCityServices();
+        CompletableFuture<List<EmergencyService>> emergencyServices = loadEmergencyServices();
+
+        DashboardResponse response = new DashboardResponse();
+        response.setComplaints(await(complaints));
+        response.setNotifications(await(notifications));
+        response.setNews(await(news));
+        response.setCityServices(await(cityServices));
+        response.setEmergencyServices(await(emergencyServices));
+        return response;
+    }
+
+    public DashboardResponse getAdminDashboard() {
+        CompletableFuture<Map<String, Long>> counts = load("complaints:counts", this::countComplaintsByStatus);
+        CompletableFuture<List<ComplaintSummary>> recent = load("complaints:recent",
+                () -> List.copyOf(complaintRepository.findRecentSummaries(firstPage())));
+        CompletableFuture<Long> totalUsers = load("users:count", userRepository::count);
+        CompletableFuture<List<NewsSummary>> news = loadNews();
+        CompletableFuture<List<CityService>> cityServices = loadCityServices();
+        CompletableFuture<List<EmergencyService>> emergencyServices = loadEmergencyServices();
+
+        DashboardResponse response = new DashboardResponse();
+        response.setComplaintCounts(await(counts));
+        response.setRecentComplaints(await(recent));
+        response.setTotalUsers(await(totalUsers));
+        response.setNews(await(news));
+        response.setCityServices(await(cityServices));
+        response.setEmergencyServices(await(emergencyServices));
+        return response;
+    }
+
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("loads", singleFlight.getLoads());
+        statistics.put("coalesced", singleFlight.getCoalesced());
+        statistics.put("queued", (long) pool.getQueue().size());
+        return statistics;
+    }
+
+    private CompletableFuture<List<NewsSummary>> loadNews() {
+        return load("news:latest", () -> List.copyOf(cityNewsRepository.findLatestSummaries(firstPage())));
+    }
+
+    private CompletableFuture<List<CityService>> loadCityServices() {
+        return load("city-services", () -> List.copyOf(cityServiceRepository.findAll()));
+    }
+
+    private CompletableFuture<List<EmergencyService>> loadEmergencyServices() {
+        return load("emergency-services", () -> List.copyOf(emergencyServiceRepository.findAll()));
+    }
+
+    private Map<String, Long> countComplaintsByStatus() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Complaint.Status status : Complaint.Status.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : complaintRepository.countGroupedByStatus()) {
+            counts.put(((Complaint.Status) row[0]).name(), (Long) row[1]);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private <T> CompletableFuture<T> load(String key, Supplier<T> query) {
+        // Only callers from the same city may share a load; its cost is charged to the caller that started it
+        return singleFlight.load(TenantContext.getCurrentCity() + ":" + key,
+                () -> CompletableFuture.supplyAsync(RequestMeter.wrap(query), executor));
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Error: Interrupted while loading the dashboard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error: Could not load the dashboard", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Error: Dashboard did not load within " + timeoutMillis + " ms", e);
+        }
+    }
+
+    private PageRequest firstPage() {
+        return PageRequest.of(0, listSize);
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartcity.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of durations in seconds, in the style of HdrHistogram. Values below 128
+ * are counted exactly; larger values fall into one of 64 buckets per power of two, so any
+ * quantile is off by less than 1.6%. The bucket count is fixed, which makes quantile lookups
+ * independent of how many values were recorded, and two sketches merge by adding counts.
+ */
+public class DurationSketch {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // About 1000 years; anything longer is clamped
+    private static final long MAX_VALUE = (1L << 35) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private long[] counts = new long[0];
+
+    private long count;
+
+    private long max;
+
+    public void record(long seconds) {
+        long value = Math.min(Math.max(seconds, 0), MAX_VALUE);
+        int index = indexOf(value);
+        ensureCapacity(index + 1);
+        counts[index]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    public void merge(DurationSketch other) {
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value at the given quantile (0..1), or null when nothing was recorded.
+     */
+    public Long quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(representativeValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public byte[] toBytes() {
+        // Sparse encoding: (gap to previous non-empty bucket, count) pairs as varints
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, max);
+        int previous = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static DurationSketch fromBytes(byte[] data) {
+        DurationSketch sketch = new DurationSketch();
+        int[] position = {0};
+        sketch.max = readVarLong(data, position);
+        int index = -1;
+        while (position[0] < data.length) {
+            index += (int) readVarLong(data, position);
+            long bucketCount = readVarLong(data, position);
+            if (index >= BUCKET_COUNT) {
+                throw new IllegalArgumentException("Duration sketch bucket " + index + " is out of range");
+            }
+            sketch.ensureCapacity(index + 1);
+            sketch.counts[index] += bucketCount;
+            sketch.count += bucketCount;
+        }
+        return sketch;
+    }
+
+    static int indexOf(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value | 1);
+        int shift = Math.max(0, exponent - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long representativeValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        long lowest = subBucket << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+
+    private void ensureCapacity(int size) {
+        if (counts.length < size) {
+            counts = Arrays.copyOf(counts, size);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated duration sketch");
+            }
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
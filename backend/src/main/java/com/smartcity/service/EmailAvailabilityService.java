@@ -0,0 +1,167 @@
+package com.smartcity.service;
+
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.dto.UserSummary;
+import com.smartcity.repository.UserRepository;
+import com.smartcity.security.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "is this email registered?" for live signup checks. A Bloom filter over every
+ * registered email rules out most new addresses without touching the database; only possible
+ * matches are confirmed with existsByEmail. The unique constraint on users.email still decides
+ * races between two signups for the same address.
+ *
+ * Emails are unique per city, so each city has its own filter, sized for expected-users.
+ * Loading and invalidation lookups read the primary: an email missing from the filter would be
+ * reported as available, and the replica may not have a signup another instance just reported.
+ */
+@Service
+public class EmailAvailabilityService implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailAvailabilityService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @Value("${email-filter.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${email-filter.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    private volatile Map<String, BloomFilter> filters;
+
+    // Emails registered while a rebuild is loading go into both sets of filters
+    private volatile Map<String, BloomFilter> building;
+
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong filteredOut = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Map<String, BloomFilter> fresh = new ConcurrentHashMap<>();
+        building = fresh;
+        long count = 0;
+        try {
+            long lastId = 0;
+            List<UserSummary> batch;
+            do {
+                long after = lastId;
+                batch = primaryReads.call(() ->
+                        userRepository.findSummariesAfterId(after, PageRequest.of(0, loadBatchSize)));
+                for (UserSummary user : batch) {
+                    filterFor(fresh, user.getCityId()).add(normalize(user.getEmail()));
+                    lastId = user.getId();
+                }
+                count += batch.size();
+            } while (batch.size() == loadBatchSize);
+            filters = fresh;
+        } finally {
+            building = null;
+        }
+        loaded.set(count);
+        if (count > expectedUsers) {
+            logger.warn("{} registered emails exceed email-filter.expected-users={}, the filter will let more "
+                    + "lookups through to the database", count, expectedUsers);
+        }
+    }
+
+    private BloomFilter filterFor(Map<String, BloomFilter> cityFilters, String city) {
+        return cityFilters.computeIfAbsent(city, key -> new BloomFilter(expectedUsers, falsePositiveRate));
+    }
+
+    /**
+     * Checks the email within the current request's city.
+     */
+    public boolean isEmailTaken(String email) {
+        Map<String, BloomFilter> current = filters;
+        // Cities without users have no filter (and arbitrary X-City values must not create one)
+        BloomFilter filter = current != null ? current.get(currentCity()) : null;
+        if (filter != null && !filter.mightContain(normalize(email))) {
+            filteredOut.incrementAndGet();
+            return false;
+        }
+        databaseChecks.incrementAndGet();
+        boolean taken = Boolean.TRUE.equals(userRepository.existsByEmail(email));
+        if (!taken && filter != null) {
+            falsePositives.incrementAndGet();
+        }
+        return taken;
+    }
+
+    public void add(String city, String email) {
+        Map<String, BloomFilter> current = filters;
+        if (current != null) {
+            filterFor(current, city).add(normalize(email));
+        }
+        Map<String, BloomFilter> loading = building;
+        if (loading != null) {
+            filterFor(loading, city).add(normalize(email));
+        }
+    }
+
+    @Override
+    public void onInvalidation(String region, String key) {
+        if (!CacheInvalidationBus.USERS.equals(region)) {
+            return;
+        }
+        if (key == null) {
+            rebuild();
+        } else {
+            primaryReads.call(() -> userRepository.findSummaryById(Long.valueOf(key)))
+                    .ifPresent(user -> add(user.getCityId(), user.getEmail()));
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, BloomFilter> current = filters;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("ready", current != null);
+        statistics.put("loadedEmails", loaded.get());
+        statistics.put("cities", current != null ? current.size() : 0);
+        statistics.put("bits", current != null ? current.values().stream().mapToLong(BloomFilter::getBitCount).sum() : 0);
+        statistics.put("hashFunctions", current != null
+                ? current.values().stream().mapToInt(BloomFilter::getHashCount).max().orElse(0) : 0);
+        statistics.put("filteredOut", filteredOut.get());
+        statistics.put("databaseChecks", databaseChecks.get());
+        statistics.put("falsePositives", falsePositives.get());
+        return statistics;
+    }
+
+    private static String currentCity() {
+        String city = TenantContext.getCurrentCity();
+        return city != null ? city : TenantContext.DEFAULT_CITY;
+    }
+
+    // Case-insensitive so the filter is never stricter than the database collation
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,9 +1,11 @@
 package com.smartcity.service;
 
 import com.smartcity.entity.EmergencyService;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.EmergencyServiceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,20 +15,35 @@ public class EmergencyServiceService {
     @Autowired
     private EmergencyServiceRepository emergencyServiceRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Transactional
     public EmergencyService createEmergencyService(EmergencyService emergencyService) {
-        return emergencyServiceRepository.save(emergencyService);
+        EmergencyService saved = emergencyServiceRepository.save(emergencyService);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EMERGENCY_SERVICES, saved.getId());
+        auditLog.record(AuditAction.EMERGENCY_SERVICE_CREATED, saved.getId(), saved.getServiceName());
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<EmergencyService> getAllEmergencyServices() {
         return emergencyServiceRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public EmergencyService getEmergencyServiceById(Long id) {
         return emergencyServiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Emergency Service not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Emergency Service", id));
     }
 
+    @Transactional
     public void deleteEmergencyService(Long id) {
         emergencyServiceRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EMERGENCY_SERVICES, id);
+        auditLog.record(AuditAction.EMERGENCY_SERVICE_DELETED, id, null);
     }
 }
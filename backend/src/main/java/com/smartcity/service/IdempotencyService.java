@@ -0,0 +1,180 @@
+package com.smartcity.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.dto.MessageResponse;
+import com.smartcity.entity.IdempotencyRecord;
+import com.smartcity.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of a write request when a client retries it with the same
+ * Idempotency-Key header. Recent records are kept in a bounded LRU map in front of the
+ * idempotency_records table, and requests sharing a key are serialized on a striped lock
+ * so concurrent duplicates execute the write only once.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int maxCachedEntries;
+
+    @Value("${idempotency.lock-stripes:64}")
+    private int lockStripes;
+
+    private Map<String, IdempotencyRecord> recentRecords;
+
+    private ReentrantLock[] locks;
+
+    @PostConstruct
+    public void init() {
+        int capacity = maxCachedEntries;
+        this.recentRecords = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ResponseEntity<?> execute(String idempotencyKey, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Idempotency-Key must be at most 255 characters!"));
+        }
+
+        String keyHash = sha256(currentPrincipal() + "|" + operation + "|" + idempotencyKey);
+        String requestHash = sha256(toJson(request));
+
+        ReentrantLock lock = locks[Math.floorMod(keyHash.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            IdempotencyRecord record = findRecord(keyHash);
+            if (record != null) {
+                if (!record.getRequestHash().equals(requestHash)) {
+                    return ResponseEntity.unprocessableEntity()
+                            .body(new MessageResponse("Error: Idempotency-Key was already used for a different request!"));
+                }
+                return replay(record);
+            }
+
+            ResponseEntity<?> response = action.get();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                store(keyHash, requestHash, response);
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${idempotency.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            logger.debug("Purged {} expired idempotency records", removed);
+        }
+    }
+
+    private IdempotencyRecord findRecord(String keyHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = recentRecords.get(keyHash);
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(keyHash).orElse(null);
+            if (record != null) {
+                recentRecords.put(keyHash, record);
+            }
+        }
+        if (record != null && record.getExpiresAt().isBefore(now)) {
+            recentRecords.remove(keyHash);
+            return null;
+        }
+        return record;
+    }
+
+    private void store(String keyHash, String requestHash, ResponseEntity<?> response) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord(keyHash, requestHash,
+                response.getStatusCode().value(), toJson(response.getBody()), now, now.plusMinutes(ttlMinutes));
+        idempotencyRecordRepository.save(record);
+        recentRecords.put(keyHash, record);
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record) {
+        return ResponseEntity.status(HttpStatus.valueOf(record.getStatusCode()))
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getResponseBody());
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error: Could not serialize idempotent request", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.smartcity.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.entity.ImportJob;
+import com.smartcity.exception.ConflictException;
+import com.smartcity.exception.ResourceNotFoundException;
+import com.smartcity.repository.ImportJobRepository;
+import com.smartcity.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk imports of users and complaints from files in import.base-dir, one job at a time.
+ * The file is parsed as a stream and written in chunks: each chunk is validated, inserted with
+ * a single JDBC batch and committed together with the job's checkpoint. If a batch hits a
+ * unique constraint (for example a user who signed up meanwhile), the chunk is rolled back and
+ * inserted again row by row so only the conflicting rows are rejected. Rejected records are
+ * appended to an NDJSON file next to the import directory instead of being kept in memory.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    private static final String UPDATE_PROGRESS =
+            "UPDATE import_jobs SET records_processed = ?, inserted_count = inserted_count + ?, "
+                    + "rejected_count = rejected_count + ?, rows_per_second = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<ImportWriter> importWriters;
+
+    @Value("${import.base-dir:data/imports}")
+    private String baseDir;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${import.max-queued:10}")
+    private int maxQueued;
+
+    @Value("${import.max-record-chars:65536}")
+    private int maxRecordChars;
+
+    // A RUNNING job that has not checkpointed for this long is assumed to have died with its instance
+    @Value("${import.stale-after-ms:300000}")
+    private long staleAfterMillis;
+
+    private final Map<ImportJob.Type, ImportWriter> writers = new EnumMap<>(ImportJob.Type.class);
+
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> cancelRequested = ConcurrentHashMap.newKeySet();
+
+    private Path root;
+
+    private Path rejectsDir;
+
+    private ThreadPoolExecutor executor;
+
+    private record Parsed(Map<String, String> fields, String error) {
+    }
+
+    private interface RecordSource {
+        // Null at the end of the input
+        Parsed next() throws IOException;
+    }
+
+    private record ChunkResult(List<ImportWriter.Row> inserted, List<ImportWriter.Rejection> rejections) {
+    }
+
+    @PostConstruct
+    public void init() {
+        importWriters.forEach(writer -> writers.put(writer.getType(), writer));
+        root = Paths.get(baseDir).toAbsolutePath().normalize();
+        rejectsDir = root.resolve("rejects");
+        try {
+            Files.createDirectories(rejectsDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error: Could not create import directory " + root, e);
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued),
+                runnable -> new Thread(runnable, "import"));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // The running job stops after its current chunk and can be resumed later
+        cancelRequested.addAll(active);
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public ImportJob startImport(ImportJob.Type type, String file, ImportJob.Format format) {
+        Path path = resolve(file);
+        ImportJob.Format resolvedFormat = format != null ? format : formatOf(path);
+        LocalDateTime now = LocalDateTime.now();
+        ImportJob job = new ImportJob(null, TenantContext.getCurrentCity(), type, resolvedFormat, root.relativize(path).toString(),
+                ImportJob.Status.QUEUED, 0, 0, 0, 0, null, null, now, null, now, null);
+        job = importJobRepository.save(job);
+        submit(job.getId());
+        return job;
+    }
+
+    public ImportJob resumeImport(Long id) {
+        ImportJob job = getImport(id);
+        boolean stale = job.getStatus() == ImportJob.Status.RUNNING && job.getUpdatedAt() != null
+                && job.getUpdatedAt().isBefore(LocalDateTime.now().minus(Duration.ofMillis(staleAfterMillis)));
+        if (active.contains(id) || !(job.getStatus() == ImportJob.Status.FAILED
+                || job.getStatus() == ImportJob.Status.CANCELLED || stale)) {
+            throw new ConflictException("Error: Only failed, cancelled or stalled imports can be resumed!");
+        }
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setErrorMessage(null);
+        job.setFinishedAt(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+        submit(id);
+        return job;
+    }
+
+    public ImportJob cancelImport(Long id) {
+        ImportJob job = getImport(id);
+        if (job.getStatus() != ImportJob.Status.QUEUED && job.getStatus() != ImportJob.Status.RUNNING) {
+            throw new ConflictException("Error: Only queued or running imports can be cancelled!");
+        }
+        cancelRequested.add(id);
+        return job;
+    }
+
+    public ImportJob getImport(Long id) {
+        return importJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Import", id));
+    }
+
+    public List<ImportJob> getRecentImports() {
+        return importJobRepository.findTop50ByOrderByIdDesc();
+    }
+
+    private void submit(Long id) {
+        try {
+            executor.execute(() -> run(id));
+        } catch (RejectedExecutionException e) {
+            ImportJob job = getImport(id);
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setErrorMessage("Too many imports queued");
+            importJobRepository.save(job);
+            throw new ConflictException("Error: Too many imports are queued, try again later!");
+        }
+    }
+
+    private void run(Long id) {
+        active.add(id);
+        ImportJob job = getImport(id);
+        ImportWriter writer = writers.get(job.getType());
+        long insertedThisRun = 0;
+        try {
+            if (cancelRequested.remove(id)) {
+                job.setStatus(ImportJob.Status.CANCELLED);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Path rejectsPath = rejectsDir.resolve("import-" + id + ".ndjson");
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setStartedAt(job.getStartedAt() != null ? job.getStartedAt() : now);
+            job.setUpdatedAt(now);
+            job.setRejectsPath(root.relativize(rejectsPath).toString());
+            job = importJobRepository.save(job);
+
+            try (BufferedReader reader = Files.newBufferedReader(resolve(job.getFilePath()), StandardCharsets.UTF_8);
+                 BufferedWriter rejects = Files.newBufferedWriter(rejectsPath, StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                RecordSource source = job.getFormat() == ImportJob.Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+                long processed = job.getRecordsProcessed();
+                for (long skipped = 0; skipped < processed; skipped++) {
+                    if (source.next() == null) {
+                        break;
+                    }
+                }
+
+                long runStarted = System.nanoTime();
+                long processedThisRun = 0;
+                while (true) {
+                    List<ImportWriter.SourceRecord> records = new ArrayList<>(chunkSize);
+                    List<ImportWriter.Rejection> parseRejections = new ArrayList<>();
+                    int read = 0;
+                    Parsed parsed;
+                    while (read < chunkSize && (parsed = source.next()) != null) {
+                        read++;
+                        long number = processed + read;
+                        if (parsed.error() != null) {
+                            parseRejections.add(new ImportWriter.Rejection(number, parsed.error(), parsed.fields()));
+                        } else {
+                            records.add(new ImportWriter.SourceRecord(number, parsed.fields()));
+                        }
+                    }
+                    if (read == 0) {
+                        job.setStatus(ImportJob.Status.COMPLETED);
+                        break;
+                    }
+
+                    processed += read;
+                    processedThisRun += read;
+                    double elapsedSeconds = Math.max(1e-3, (System.nanoTime() - runStarted) / 1e9);
+                    double rowsPerSecond = processedThisRun / elapsedSeconds;
+                    ChunkResult result = writeChunk(id, job.getCityId(), writer, records, parseRejections, processed, rowsPerSecond);
+
+                    for (ImportWriter.Rejection rejection : result.rejections()) {
+                        rejects.write(objectMapper.writeValueAsString(Map.of(
+                                "record", rejection.number(),
+                                "reason", rejection.reason(),
+                                "fields", rejection.fields() != null ? rejection.fields() : Map.of())));
+                        rejects.newLine();
+                    }
+                    rejects.flush();
+                    writer.afterChunk(job.getCityId(), result.inserted());
+
+                    insertedThisRun += result.inserted().size();
+                    job.setRecordsProcessed(processed);
+                    job.setInsertedCount(job.getInsertedCount() + result.inserted().size());
+                    job.setRejectedCount(job.getRejectedCount() + result.rejections().size());
+                    job.setRowsPerSecond(rowsPerSecond);
+
+                    if (cancelRequested.remove(id) || Thread.currentThread().isInterrupted()) {
+                        job.setStatus(ImportJob.Status.CANCELLED);
+                        break;
+                    }
+                }
+            }
+            logger.info("Import {} of {} {}: {} records, {} inserted, {} rejected, {} rows/s", id, job.getType(),
+                    job.getStatus(), job.getRecordsProcessed(), job.getInsertedCount(), job.getRejectedCount(),
+                    Math.round(job.getRowsPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Import {} failed after {} records", id, job.getRecordsProcessed(), e);
+            job.setStatus(ImportJob.Status.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        } finally {
+            cancelRequested.remove(id);
+            LocalDateTime now = LocalDateTime.now();
+            job.setUpdatedAt(now);
+            job.setFinishedAt(now);
+            importJobRepository.save(job);
+            active.remove(id);
+            if (insertedThisRun > 0) {
+                writer.afterJob();
+            }
+        }
+    }
+
+    private ChunkResult writeChunk(Long id, String cityId, ImportWriter writer, List<ImportWriter.SourceRecord> records,
+                                   List<ImportWriter.Rejection> parseRejections, long processed, double rowsPerSecond) {
+        try {
+            return transactionTemplate.execute(status ->
+                    insertChunk(id, cityId, writer, records, parseRejections, processed, rowsPerSecond, true));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Import {} batch conflicted, retrying records up to {} one by one", id, processed);
+            return transactionTemplate.execute(status ->
+                    insertChunk(id, cityId, writer, records, parseRejections, processed, rowsPerSecond, false));
+        }
+    }
+
+    private ChunkResult insertChunk(Long id, String cityId, ImportWriter writer, List<ImportWriter.SourceRecord> records,
+                                    List<ImportWriter.Rejection> parseRejections, long processed,
+                                    double rowsPerSecond, boolean batch) {
+        List<ImportWriter.Rejection> rejections = new ArrayList<>(parseRejections);
+        List<ImportWriter.Row> rows = writer.prepare(cityId, records, rejections);
+        List<ImportWriter.Row> inserted;
+        if (batch) {
+            jdbcTemplate.batchUpdate(writer.getInsertSql(), rows.stream().map(ImportWriter.Row::values).toList());
+            inserted = rows;
+        } else {
+            inserted = new ArrayList<>(rows.size());
+            for (ImportWriter.Row row : rows) {
+                try {
+                    jdbcTemplate.update(writer.getInsertSql(), row.values());
+                    inserted.add(row);
+                } catch (DataIntegrityViolationException e) {
+                    rejections.add(new ImportWriter.Rejection(row.number(), "Conflicts with an existing row",
+                            recordFields(records, row.number())));
+                }
+            }
+        }
+        jdbcTemplate.update(UPDATE_PROGRESS, processed, inserted.size(), rejections.size(), rowsPerSecond,
+                LocalDateTime.now(), id);
+        return new ChunkResult(inserted, rejections);
+    }
+
+    private RecordSource csvSource(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader, maxRecordChars);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        return () -> {
+            List<String> values;
+            try {
+                values = csv.next();
+            } catch (CsvRecordReader.MalformedRecordException e) {
+                return new Parsed(Map.of("line", e.getStart()), e.getMessage());
+            }
+            if (values == null) {
+                return null;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(columns.size(), values.size()); i++) {
+                fields.put(columns.get(i), values.get(i).isEmpty() ? null : values.get(i));
+            }
+            if (values.size() != columns.size()) {
+                return new Parsed(fields, "Expected " + columns.size() + " fields but found " + values.size());
+            }
+            return new Parsed(fields, null);
+        };
+    }
+
+    private RecordSource ndjsonSource(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Parsed(Map.of("line", line.length() > 500 ? line.substring(0, 500) : line),
+                        "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Parsed(Map.of("line", line.length() > 500 ? line.substring(0, 500) : line),
+                        "Not a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                JsonNode value = field.getValue();
+                fields.put(field.getKey().toLowerCase(Locale.ROOT),
+                        value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString());
+            });
+            return new Parsed(fields, null);
+        };
+    }
+
+    private static Map<String, String> recordFields(List<ImportWriter.SourceRecord> records, long number) {
+        for (ImportWriter.SourceRecord record : records) {
+            if (record.number() == number) {
+                return record.fields();
+            }
+        }
+        return null;
+    }
+
+    private Path resolve(String file) {
+        Path path = root.resolve(file).normalize();
+        if (!path.startsWith(root) || path.startsWith(rejectsDir) || !Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("Error: " + file + " is not a readable file in the import directory!");
+        }
+        return path;
+    }
+
+    private static ImportJob.Format formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ImportJob.Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportJob.Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Error: Cannot tell the format of " + path.getFileName() + ", pass format=CSV or NDJSON!");
+    }
+}
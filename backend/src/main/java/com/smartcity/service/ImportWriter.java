@@ -0,0 +1,41 @@
+package com.smartcity.service;
+
+import com.smartcity.entity.ImportJob;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns parsed import records of one type into rows for a JDBC batch insert into the job's city.
+ * prepare runs inside the chunk transaction and may query the database; records it cannot
+ * accept are added to rejections instead of being returned as rows.
+ */
+public interface ImportWriter {
+
+    record SourceRecord(long number, Map<String, String> fields) {
+    }
+
+    record Row(long number, Object[] values) {
+    }
+
+    record Rejection(long number, String reason, Map<String, String> fields) {
+    }
+
+    ImportJob.Type getType();
+
+    String getInsertSql();
+
+    List<Row> prepare(String cityId, List<SourceRecord> records, List<Rejection> rejections);
+
+    /**
+     * Called after a chunk has been committed with the rows that were inserted.
+     */
+    default void afterChunk(String cityId, List<Row> inserted) {
+    }
+
+    /**
+     * Called once a job stops, whether it completed or not, if it inserted anything.
+     */
+    default void afterJob() {
+    }
+}
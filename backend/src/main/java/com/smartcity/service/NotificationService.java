@@ -2,13 +2,19 @@ package com.smartcity.service;
 
 import com.smartcity.entity.Notification;
 import com.smartcity.entity.User;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.NotificationRepository;
 import com.smartcity.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
@@ -19,21 +25,60 @@ public class NotificationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Transactional
     public Notification createNotification(String message, Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
 
         Notification notification = new Notification();
         notification.setMessage(message);
         notification.setUser(user);
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        auditLog.record(AuditAction.NOTIFICATION_SENT, userId, "Notification " + saved.getId());
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_NOTIFICATIONS, userId);
+        return saved;
+    }
+
+    @Transactional
+    public List<Notification> createNotifications(String message, List<Long> userIds) {
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Notification> notifications = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = users.get(userId);
+            if (user == null) {
+                throw new ResourceNotFoundException("User", userId);
+            }
+            Notification notification = new Notification();
+            notification.setMessage(message);
+            notification.setUser(user);
+            notifications.add(notification);
+        }
+
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        for (Notification notification : saved) {
+            auditLog.record(AuditAction.NOTIFICATION_SENT, notification.getUser().getId(),
+                    "Notification " + notification.getId());
+        }
+        // One invalidation for the whole batch instead of a row per recipient
+        cacheInvalidationBus.publish(CacheInvalidationBus.USER_NOTIFICATIONS, null);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Notification> getNotificationsByUserId(Long userId) {
         return notificationRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<Notification> getAllNotifications() {
         return notificationRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
     }
@@ -0,0 +1,474 @@
+package com.smartcity.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a flat table of 64-bit integers, strings and timestamps as a Parquet file, without the
+ * Hadoop dependencies of the reference implementation. Values are PLAIN encoded, nullable
+ * columns carry RLE definition levels, and every page is gzip-compressed. Rows are buffered
+ * until a row group is full; each column's pages are compressed as they fill up, and the row
+ * group is then written column after column. The footer is the Thrift compact encoding of
+ * FileMetaData, followed by its length and the PAR1 magic.
+ *
+ * Integer and timestamp column chunks carry min/max statistics so readers can skip row groups.
+ * Timestamps are written as UTC milliseconds, converted from the server's time zone.
+ */
+final class ParquetWriter implements Closeable {
+
+    enum Type {
+        INT64,
+        STRING,
+        TIMESTAMP
+    }
+
+    record Column(String name, Type type, boolean optional) {
+    }
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int PAGE_ROWS = 8192;
+
+    // Constants from parquet.thrift
+    private static final int PHYSICAL_INT64 = 2;
+    private static final int PHYSICAL_BYTE_ARRAY = 6;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int REPETITION_REQUIRED = 0;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int CODEC_GZIP = 2;
+    private static final int PAGE_TYPE_DATA = 0;
+
+    private final OutputStream out;
+
+    private final List<Column> columns;
+
+    private final int rowGroupRows;
+
+    private final ColumnBuffer[] buffers;
+
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private long position;
+
+    private int rowGroupRowCount;
+
+    private long totalRows;
+
+    private record ChunkMetadata(long dataPageOffset, long numValues, long uncompressedSize, long compressedSize,
+                                 long nullCount, Long min, Long max) {
+    }
+
+    private record RowGroup(List<ChunkMetadata> chunks, long rows) {
+    }
+
+    ParquetWriter(OutputStream out, List<Column> columns, int rowGroupRows) throws IOException {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.columns = List.copyOf(columns);
+        this.rowGroupRows = rowGroupRows;
+        this.buffers = new ColumnBuffer[columns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnBuffer(columns.get(i));
+        }
+        write(MAGIC);
+    }
+
+    void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i].add(values[i]);
+        }
+        totalRows++;
+        if (++rowGroupRowCount == rowGroupRows) {
+            flushRowGroup();
+        }
+    }
+
+    long getRowCount() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            byte[] footer = fileMetadata();
+            write(footer);
+            write(littleEndianInt(footer.length));
+            write(MAGIC);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rowGroupRowCount == 0) {
+            return;
+        }
+        List<ChunkMetadata> chunks = new ArrayList<>(buffers.length);
+        for (ColumnBuffer buffer : buffers) {
+            buffer.flushPage();
+            long offset = position;
+            buffer.chunk.writeTo(out);
+            position += buffer.chunk.size();
+            chunks.add(buffer.finishChunk(offset));
+        }
+        rowGroups.add(new RowGroup(chunks, rowGroupRowCount));
+        rowGroupRowCount = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private byte[] fileMetadata() {
+        ThriftWriter thrift = new ThriftWriter();
+        thrift.i32(1, 1);
+        thrift.beginList(2, ThriftWriter.STRUCT, columns.size() + 1);
+        thrift.beginElement();
+        thrift.string(4, "schema");
+        thrift.i32(5, columns.size());
+        thrift.endStruct();
+        for (Column column : columns) {
+            thrift.beginElement();
+            thrift.i32(1, column.type() == Type.STRING ? PHYSICAL_BYTE_ARRAY : PHYSICAL_INT64);
+            thrift.i32(3, column.optional() ? REPETITION_OPTIONAL : REPETITION_REQUIRED);
+            thrift.string(4, column.name());
+            if (column.type() == Type.STRING) {
+                thrift.i32(6, CONVERTED_UTF8);
+                thrift.beginStruct(10);
+                thrift.beginStruct(1);
+                thrift.endStruct();
+                thrift.endStruct();
+            } else if (column.type() == Type.TIMESTAMP) {
+                thrift.i32(6, CONVERTED_TIMESTAMP_MILLIS);
+                thrift.beginStruct(10);
+                thrift.beginStruct(8);
+                thrift.bool(1, true);
+                thrift.beginStruct(2);
+                thrift.beginStruct(1);
+                thrift.endStruct();
+                thrift.endStruct();
+                thrift.endStruct();
+                thrift.endStruct();
+            }
+            thrift.endStruct();
+        }
+        thrift.i64(3, totalRows);
+        thrift.beginList(4, ThriftWriter.STRUCT, rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            long uncompressed = 0;
+            long compressed = 0;
+            thrift.beginElement();
+            thrift.beginList(1, ThriftWriter.STRUCT, columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                ChunkMetadata chunk = rowGroup.chunks().get(i);
+                uncompressed += chunk.uncompressedSize();
+                compressed += chunk.compressedSize();
+                thrift.beginElement();
+                thrift.i64(2, chunk.dataPageOffset());
+                thrift.beginStruct(3);
+                thrift.i32(1, column.type() == Type.STRING ? PHYSICAL_BYTE_ARRAY : PHYSICAL_INT64);
+                thrift.beginList(2, ThriftWriter.I32, 2);
+                thrift.i32Element(ENCODING_PLAIN);
+                thrift.i32Element(ENCODING_RLE);
+                thrift.beginList(3, ThriftWriter.BINARY, 1);
+                thrift.stringElement(column.name());
+                thrift.i32(4, CODEC_GZIP);
+                thrift.i64(5, chunk.numValues());
+                thrift.i64(6, chunk.uncompressedSize());
+                thrift.i64(7, chunk.compressedSize());
+                thrift.i64(9, chunk.dataPageOffset());
+                thrift.beginStruct(12);
+                thrift.i64(3, chunk.nullCount());
+                if (chunk.min() != null) {
+                    thrift.binary(5, littleEndianLong(chunk.max()));
+                    thrift.binary(6, littleEndianLong(chunk.min()));
+                }
+                thrift.endStruct();
+                thrift.endStruct();
+                thrift.endStruct();
+            }
+            thrift.i64(2, uncompressed);
+            thrift.i64(3, rowGroup.rows());
+            thrift.i64(5, rowGroup.chunks().get(0).dataPageOffset());
+            thrift.i64(6, compressed);
+            thrift.endStruct();
+        }
+        thrift.string(6, "smart-city-backend");
+        // Type-defined sort order for every column, so readers trust the min/max statistics
+        thrift.beginList(7, ThriftWriter.STRUCT, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            thrift.beginElement();
+            thrift.beginStruct(1);
+            thrift.endStruct();
+            thrift.endStruct();
+        }
+        return thrift.finish();
+    }
+
+    private final class ColumnBuffer {
+
+        private final Column column;
+
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream();
+
+        private final boolean[] present = new boolean[PAGE_ROWS];
+
+        private int pageRows;
+
+        // Compressed pages of the current row group, headers included
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+
+        private long numValues;
+        private long uncompressedSize;
+        private long compressedSize;
+        private long nullCount;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        ColumnBuffer(Column column) {
+            this.column = column;
+        }
+
+        void add(Object value) throws IOException {
+            if (value == null) {
+                if (!column.optional()) {
+                    throw new IllegalArgumentException("Column " + column.name() + " cannot be null");
+                }
+                nullCount++;
+            } else {
+                switch (column.type()) {
+                    case INT64 -> addLong((Long) value);
+                    case TIMESTAMP -> addLong(((LocalDateTime) value).atZone(zone).toInstant().toEpochMilli());
+                    case STRING -> {
+                        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                        values.write(littleEndianInt(bytes.length));
+                        values.write(bytes);
+                    }
+                }
+            }
+            present[pageRows] = value != null;
+            if (++pageRows == PAGE_ROWS) {
+                flushPage();
+            }
+        }
+
+        private void addLong(long value) throws IOException {
+            values.write(littleEndianLong(value));
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void flushPage() throws IOException {
+            if (pageRows == 0) {
+                return;
+            }
+            ByteArrayOutputStream page = new ByteArrayOutputStream(values.size() + 64);
+            if (column.optional()) {
+                byte[] levels = definitionLevels();
+                page.write(littleEndianInt(levels.length));
+                page.write(levels);
+            }
+            values.writeTo(page);
+            byte[] uncompressed = page.toByteArray();
+            byte[] compressed = gzip(uncompressed);
+
+            ThriftWriter header = new ThriftWriter();
+            header.i32(1, PAGE_TYPE_DATA);
+            header.i32(2, uncompressed.length);
+            header.i32(3, compressed.length);
+            header.beginStruct(5);
+            header.i32(1, pageRows);
+            header.i32(2, ENCODING_PLAIN);
+            header.i32(3, ENCODING_RLE);
+            header.i32(4, ENCODING_RLE);
+            header.endStruct();
+            byte[] headerBytes = header.finish();
+
+            chunk.write(headerBytes);
+            chunk.write(compressed);
+            uncompressedSize += headerBytes.length + uncompressed.length;
+            compressedSize += headerBytes.length + compressed.length;
+            numValues += pageRows;
+            values.reset();
+            pageRows = 0;
+        }
+
+        // RLE runs of the 1-bit definition levels: a varint run header, then the value in one byte
+        private byte[] definitionLevels() {
+            ByteArrayOutputStream levels = new ByteArrayOutputStream();
+            int start = 0;
+            while (start < pageRows) {
+                int end = start + 1;
+                while (end < pageRows && present[end] == present[start]) {
+                    end++;
+                }
+                writeVarint(levels, (long) (end - start) << 1);
+                levels.write(present[start] ? 1 : 0);
+                start = end;
+            }
+            return levels.toByteArray();
+        }
+
+        ChunkMetadata finishChunk(long offset) {
+            ChunkMetadata metadata = new ChunkMetadata(offset, numValues, uncompressedSize, compressedSize, nullCount,
+                    column.type() != Type.STRING && min <= max ? min : null,
+                    column.type() != Type.STRING && min <= max ? max : null);
+            chunk.reset();
+            numValues = 0;
+            uncompressedSize = 0;
+            compressedSize = 0;
+            nullCount = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+            return metadata;
+        }
+    }
+
+    /**
+     * The subset of the Thrift compact protocol the Parquet footer and page headers need.
+     */
+    private static final class ThriftWriter {
+
+        static final int I32 = 5;
+        static final int BINARY = 8;
+        static final int STRUCT = 12;
+
+        private static final int BOOLEAN_TRUE = 1;
+        private static final int BOOLEAN_FALSE = 2;
+        private static final int I64 = 6;
+        private static final int LIST = 9;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private final Deque<Integer> enclosingFieldIds = new ArrayDeque<>();
+
+        private int lastFieldId;
+
+        void i32(int fieldId, int value) {
+            fieldHeader(fieldId, I32);
+            writeVarint(out, zigzag(value));
+        }
+
+        void i64(int fieldId, long value) {
+            fieldHeader(fieldId, I64);
+            writeVarint(out, zigzag(value));
+        }
+
+        void bool(int fieldId, boolean value) {
+            fieldHeader(fieldId, value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        }
+
+        void binary(int fieldId, byte[] value) {
+            fieldHeader(fieldId, BINARY);
+            writeVarint(out, value.length);
+            out.writeBytes(value);
+        }
+
+        void string(int fieldId, String value) {
+            binary(fieldId, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void beginStruct(int fieldId) {
+            fieldHeader(fieldId, STRUCT);
+            beginElement();
+        }
+
+        void beginList(int fieldId, int elementType, int size) {
+            fieldHeader(fieldId, LIST);
+            if (size < 15) {
+                out.write(size << 4 | elementType);
+            } else {
+                out.write(0xF0 | elementType);
+                writeVarint(out, size);
+            }
+        }
+
+        // Starts a struct that is an element of a list
+        void beginElement() {
+            enclosingFieldIds.push(lastFieldId);
+            lastFieldId = 0;
+        }
+
+        void i32Element(int value) {
+            writeVarint(out, zigzag(value));
+        }
+
+        void stringElement(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void endStruct() {
+            out.write(0);
+            lastFieldId = enclosingFieldIds.pop();
+        }
+
+        byte[] finish() {
+            out.write(0);
+            return out.toByteArray();
+        }
+
+        private void fieldHeader(int fieldId, int type) {
+            int delta = fieldId - lastFieldId;
+            if (delta > 0 && delta <= 15) {
+                out.write(delta << 4 | type);
+            } else {
+                out.write(type);
+                writeVarint(out, zigzag(fieldId));
+            }
+            lastFieldId = fieldId;
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] littleEndianInt(int value) {
+        return new byte[]{(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)};
+    }
+
+    private static byte[] littleEndianLong(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+        return bytes;
+    }
+}
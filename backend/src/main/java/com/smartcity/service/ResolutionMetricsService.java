@@ -0,0 +1,174 @@
+package com.smartcity.service;
+
+import com.smartcity.dto.ResolutionStats;
+import com.smartcity.entity.Complaint;
+import com.smartcity.entity.ResolutionMetric;
+import com.smartcity.repository.ResolutionMetricRepository;
+import com.smartcity.security.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long complaints wait for a first response (leaving PENDING) and for resolution.
+ * Samples go into an in-memory DurationSketch per city, metric, category and day, and every
+ * flush merges them into the matching resolution_metrics row under a row lock, so several
+ * instances can write the same day. Queries merge the daily sketches of the requested range in
+ * the current city.
+ */
+@Service
+public class ResolutionMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionMetricsService.class);
+
+    @Autowired
+    private ResolutionMetricRepository resolutionMetricRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Key, DurationSketch> pending = new ConcurrentHashMap<>();
+
+    private record Key(String cityId, ResolutionMetric.Metric metric, String category, LocalDate date) {
+    }
+
+    /**
+     * Called inside the transaction that changes the status; samples are kept only if it commits.
+     */
+    public void recordStatusChange(Complaint complaint, Complaint.Status previous, LocalDateTime now) {
+        if (complaint.getCreatedAt() == null || previous == complaint.getStatus()) {
+            return;
+        }
+        long seconds = Duration.between(complaint.getCreatedAt(), now).toSeconds();
+        List<Key> keys = new ArrayList<>(2);
+        if (complaint.getFirstResponseAt() == null && complaint.getStatus() != Complaint.Status.PENDING) {
+            complaint.setFirstResponseAt(now);
+            keys.add(new Key(complaint.getCityId(), ResolutionMetric.Metric.FIRST_RESPONSE,
+                    complaint.getCategory(), now.toLocalDate()));
+        }
+        if (complaint.getStatus() == Complaint.Status.RESOLVED) {
+            keys.add(new Key(complaint.getCityId(), ResolutionMetric.Metric.RESOLUTION,
+                    complaint.getCategory(), now.toLocalDate()));
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.forEach(key -> record(key, seconds));
+                }
+            });
+        } else {
+            keys.forEach(key -> record(key, seconds));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${resolution-metrics.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        for (Key key : List.copyOf(pending.keySet())) {
+            DurationSketch delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(key, delta));
+            } catch (DataAccessException | TransactionException e) {
+                // Most likely another instance created the same row first; retried on the next flush
+                logger.debug("Could not flush resolution metrics for {}, will retry", key, e);
+                pending.merge(key, delta, ResolutionMetricsService::combine);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResolutionStats> getStatistics(ResolutionMetric.Metric metric, String category,
+                                               LocalDate from, LocalDate to) {
+        List<ResolutionMetric> rows = category != null
+                ? resolutionMetricRepository.findByMetricAndCategoryAndMetricDateBetween(metric, category, from, to)
+                : resolutionMetricRepository.findByMetricAndMetricDateBetween(metric, from, to);
+
+        Map<String, DurationSketch> byCategory = new TreeMap<>();
+        for (ResolutionMetric row : rows) {
+            byCategory.computeIfAbsent(row.getCategory(), c -> new DurationSketch())
+                    .merge(DurationSketch.fromBytes(row.getSketch()));
+        }
+        // Samples not flushed yet are only visible on the instance that recorded them
+        String city = TenantContext.getCurrentCity();
+        pending.forEach((key, sketch) -> {
+            if ((city == null || city.equals(key.cityId())) && key.metric() == metric && (category == null || category.equals(key.category()))
+                    && !key.date().isBefore(from) && !key.date().isAfter(to)) {
+                synchronized (sketch) {
+                    byCategory.computeIfAbsent(key.category(), c -> new DurationSketch()).merge(sketch);
+                }
+            }
+        });
+
+        List<ResolutionStats> statistics = new ArrayList<>();
+        DurationSketch overall = new DurationSketch();
+        byCategory.forEach((name, sketch) -> {
+            overall.merge(sketch);
+            statistics.add(toStats(name, sketch));
+        });
+        if (category == null) {
+            statistics.add(0, toStats(null, overall));
+        }
+        return statistics;
+    }
+
+    private void record(Key key, long seconds) {
+        pending.compute(key, (k, sketch) -> {
+            DurationSketch target = sketch != null ? sketch : new DurationSketch();
+            synchronized (target) {
+                target.record(seconds);
+            }
+            return target;
+        });
+    }
+
+    private void persist(Key key, DurationSketch delta) {
+        ResolutionMetric row = resolutionMetricRepository
+                .findForUpdate(key.cityId(), key.metric(), key.category(), key.date())
+                .orElseGet(() -> new ResolutionMetric(null, key.cityId(), key.metric(), key.category(), key.date(),
+                        0, null, null));
+        DurationSketch merged = row.getSketch() != null ? DurationSketch.fromBytes(row.getSketch()) : new DurationSketch();
+        merged.merge(delta);
+        row.setSketch(merged.toBytes());
+        row.setSampleCount(merged.getCount());
+        row.setUpdatedAt(LocalDateTime.now());
+        resolutionMetricRepository.saveAndFlush(row);
+    }
+
+    private static DurationSketch combine(DurationSketch current, DurationSketch delta) {
+        synchronized (current) {
+            current.merge(delta);
+        }
+        return current;
+    }
+
+    private static ResolutionStats toStats(String category, DurationSketch sketch) {
+        return new ResolutionStats(category, sketch.getCount(), sketch.quantile(0.5), sketch.quantile(0.9),
+                sketch.quantile(0.99), sketch.getCount() > 0 ? sketch.getMax() : null);
+    }
+}
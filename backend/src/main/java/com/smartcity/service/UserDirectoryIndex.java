@@ -0,0 +1,239 @@
+package com.smartcity.service;
+
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.dto.UserDirectoryPage;
+import com.smartcity.dto.UserSummary;
+import com.smartcity.entity.User;
+import com.smartcity.repository.UserRepository;
+import com.smartcity.security.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory sorted index of user summaries for the admin directory, partitioned by city so a
+ * search only ever sees the caller's city. Each role has one skip
+ * list keyed by lower-cased name and one keyed by lower-cased email (both suffixed with the id
+ * so keys are unique). A prefix search walks only the matching key range and stops after one
+ * page, so its cost depends on the page size and not on the number of users. Pages continue
+ * from an opaque cursor holding the last key returned.
+ *
+ * The index is built from a keyset-paged projection query once the application is ready, and
+ * kept current through the cache invalidation bus, which reports every signup on any instance.
+ * Both read the primary: a signup reported by the bus may not have reached the replica yet,
+ * and a user missed then would stay out of the index until the next rebuild.
+ */
+@Service
+public class UserDirectoryIndex implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryIndex.class);
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @Value("${user-directory.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    // Indexes per city
+    private volatile Map<String, Indexes> current;
+
+    // Signups that arrive while a rebuild is loading go into both maps
+    private volatile Map<String, Indexes> building;
+
+    private static final class Indexes {
+        final Map<User.Role, NavigableMap<String, UserSummary>> byName = new EnumMap<>(User.Role.class);
+        final Map<User.Role, NavigableMap<String, UserSummary>> byEmail = new EnumMap<>(User.Role.class);
+
+        Indexes() {
+            for (User.Role role : User.Role.values()) {
+                byName.put(role, new ConcurrentSkipListMap<>());
+                byEmail.put(role, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        void add(UserSummary user) {
+            if (user.getRole() == null) {
+                return;
+            }
+            byName.get(user.getRole()).put(key(user.getName(), user.getId()), user);
+            byEmail.get(user.getRole()).put(key(user.getEmail(), user.getId()), user);
+        }
+
+        int size() {
+            return byName.values().stream().mapToInt(Map::size).sum();
+        }
+
+        static void add(Map<String, Indexes> cities, UserSummary user) {
+            cities.computeIfAbsent(user.getCityId(), city -> new Indexes()).add(user);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Map<String, Indexes> fresh = new ConcurrentHashMap<>();
+        building = fresh;
+        try {
+            long lastId = 0;
+            List<UserSummary> batch;
+            do {
+                long after = lastId;
+                batch = primaryReads.call(() ->
+                        userRepository.findSummariesAfterId(after, PageRequest.of(0, loadBatchSize)));
+                for (UserSummary user : batch) {
+                    Indexes.add(fresh, user);
+                    lastId = user.getId();
+                }
+            } while (batch.size() == loadBatchSize);
+            current = fresh;
+        } finally {
+            building = null;
+        }
+        logger.info("User directory index built with {} users in {} cities in {} ms",
+                fresh.values().stream().mapToInt(Indexes::size).sum(), fresh.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public void add(UserSummary user) {
+        Map<String, Indexes> cities = current;
+        if (cities != null) {
+            Indexes.add(cities, user);
+        }
+        Map<String, Indexes> loading = building;
+        if (loading != null) {
+            Indexes.add(loading, user);
+        }
+    }
+
+    @Override
+    public void onInvalidation(String region, String key) {
+        if (!CacheInvalidationBus.USERS.equals(region)) {
+            return;
+        }
+        if (key == null) {
+            rebuild();
+        } else {
+            primaryReads.call(() -> userRepository.findSummaryById(Long.valueOf(key))).ifPresent(this::add);
+        }
+    }
+
+    /**
+     * Returns up to size users of the current city whose name or email starts with the prefix (all
+     * users by name when the prefix is blank), optionally limited to one role, continuing after the
+     * given cursor.
+     */
+    public UserDirectoryPage search(String prefix, User.Role role, String cursor, int size) {
+        Map<String, Indexes> cities = current;
+        if (cities == null) {
+            throw new IllegalStateException("Error: User directory is still loading");
+        }
+        String city = TenantContext.getCurrentCity();
+        Indexes indexes = city != null ? cities.get(city) : null;
+        if (indexes == null) {
+            return new UserDirectoryPage(List.of(), null);
+        }
+        String normalized = prefix != null ? normalize(prefix) : "";
+        String after = cursor != null ? decodeCursor(cursor) : null;
+
+        // Merge the sorted ranges; a user whose name and email both match is listed once, by name
+        PriorityQueue<Head> heads = new PriorityQueue<>();
+        for (User.Role candidate : User.Role.values()) {
+            if (role != null && role != candidate) {
+                continue;
+            }
+            Head.advance(range(indexes.byName.get(candidate), normalized, after), false, heads);
+            if (!normalized.isEmpty()) {
+                Head.advance(range(indexes.byEmail.get(candidate), normalized, after), true, heads);
+            }
+        }
+
+        List<UserSummary> users = new ArrayList<>(size);
+        String lastKey = null;
+        while (!heads.isEmpty() && users.size() < size) {
+            Head head = heads.poll();
+            Head.advance(head.source(), head.email(), heads);
+            UserSummary user = head.entry().getValue();
+            lastKey = head.entry().getKey();
+            if (head.email() && normalize(user.getName()).startsWith(normalized)) {
+                continue;
+            }
+            users.add(user);
+        }
+        String nextCursor = !heads.isEmpty() ? encodeCursor(lastKey) : null;
+        return new UserDirectoryPage(users, nextCursor);
+    }
+
+    private record Head(Map.Entry<String, UserSummary> entry, Iterator<Map.Entry<String, UserSummary>> source,
+                        boolean email) implements Comparable<Head> {
+
+        static void advance(Iterator<Map.Entry<String, UserSummary>> source, boolean email, PriorityQueue<Head> heads) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source, email));
+            }
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            return entry.getKey().compareTo(other.entry.getKey());
+        }
+    }
+
+    private static Iterator<Map.Entry<String, UserSummary>> range(NavigableMap<String, UserSummary> index,
+                                                                  String prefix, String after) {
+        NavigableMap<String, UserSummary> matching = prefix.isEmpty()
+                ? index
+                : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (after != null) {
+            matching = matching.tailMap(after, false);
+        }
+        return matching.entrySet().iterator();
+    }
+
+    private static String key(String value, Long id) {
+        return normalize(value) + KEY_SEPARATOR + id;
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        // Throws IllegalArgumentException for anything that is not a cursor we handed out
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
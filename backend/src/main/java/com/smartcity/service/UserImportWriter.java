@@ -0,0 +1,153 @@
+package com.smartcity.service;
+
+import com.smartcity.dto.SignupRequest;
+import com.smartcity.entity.ImportJob;
+import com.smartcity.entity.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports citizen accounts. Records carry name, email, role (CITIZEN when empty), phone,
+ * address and either password_hash (a BCrypt hash from the old system, stored as is) or a
+ * plain password, which is hashed here and is therefore much slower. Fields are validated with
+ * the same constraints as a signup.
+ */
+@Service
+public class UserImportWriter implements ImportWriter {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (city_id, name, email, password, role, phone, address) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EmailAvailabilityService emailAvailabilityService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Override
+    public ImportJob.Type getType() {
+        return ImportJob.Type.USERS;
+    }
+
+    @Override
+    public String getInsertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    public List<Row> prepare(String cityId, List<SourceRecord> records, List<Rejection> rejections) {
+        Map<String, SourceRecord> byEmail = new LinkedHashMap<>();
+        Map<SourceRecord, SignupRequest> requests = new HashMap<>();
+        for (SourceRecord record : records) {
+            Map<String, String> fields = record.fields();
+            String passwordHash = fields.get("password_hash");
+            boolean preHashed = passwordHash != null && !passwordHash.isBlank();
+            if (preHashed && !BCRYPT_HASH.matcher(passwordHash).matches()) {
+                rejections.add(new Rejection(record.number(), "password_hash is not a BCrypt hash", fields));
+                continue;
+            }
+
+            String role = fields.get("role");
+            SignupRequest request = new SignupRequest(fields.get("name"), trim(fields.get("email")),
+                    preHashed ? passwordHash : fields.get("password"),
+                    role == null || role.isBlank() ? User.Role.CITIZEN.name() : role.trim().toUpperCase(Locale.ROOT),
+                    fields.get("phone"), fields.get("address"));
+            Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                rejections.add(new Rejection(record.number(), violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")), fields));
+                continue;
+            }
+            if (!isRole(request.getRole())) {
+                rejections.add(new Rejection(record.number(), "Invalid role " + request.getRole(), fields));
+                continue;
+            }
+            if (byEmail.putIfAbsent(request.getEmail().toLowerCase(Locale.ROOT), record) != null) {
+                rejections.add(new Rejection(record.number(), "Duplicate email in file", fields));
+                continue;
+            }
+            if (!preHashed) {
+                request.setPassword(passwordEncoder.encode(request.getPassword()));
+            }
+            requests.put(record, request);
+        }
+
+        Set<String> registered = new HashSet<>();
+        if (!byEmail.isEmpty()) {
+            List<String> emails = requests.values().stream().map(SignupRequest::getEmail).toList();
+            for (String email : jdbcTemplate.queryForList(
+                    "SELECT email FROM users WHERE city_id = :city AND email IN (:emails)",
+                    Map.of("city", cityId, "emails", emails), String.class)) {
+                registered.add(email.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        List<Row> rows = new ArrayList<>(requests.size());
+        for (SourceRecord record : byEmail.values()) {
+            SignupRequest request = requests.get(record);
+            if (registered.contains(request.getEmail().toLowerCase(Locale.ROOT))) {
+                rejections.add(new Rejection(record.number(), "Email is already registered", record.fields()));
+                continue;
+            }
+            rows.add(new Row(record.number(), new Object[]{cityId, request.getName(), request.getEmail(),
+                    request.getPassword(), request.getRole(), request.getPhone(), request.getAddress()}));
+        }
+        return rows;
+    }
+
+    @Override
+    public void afterChunk(String cityId, List<Row> inserted) {
+        // Keep live availability checks correct while the import is still running; the rows went
+        // in through JDBC, so cached findByEmail/existsByEmail misses on this instance are stale
+        inserted.forEach(row -> emailAvailabilityService.add(cityId, (String) row.values()[2]));
+        if (!inserted.isEmpty()) {
+            cacheInvalidationBus.evictLocally(CacheInvalidationBus.USERS);
+        }
+    }
+
+    @Override
+    public void afterJob() {
+        // Every instance, this one included, reloads its user directory and email filter and drops
+        // cached users and user queries
+        cacheInvalidationBus.publish(CacheInvalidationBus.USERS, null);
+    }
+
+    private static boolean isRole(String role) {
+        for (User.Role candidate : User.Role.values()) {
+            if (candidate.name().equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+}
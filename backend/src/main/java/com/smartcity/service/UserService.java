@@ -1,9 +1,13 @@
 package com.smartcity.service;
 
+import com.smartcity.dto.UserDirectoryPage;
+import com.smartcity.dto.UserSummary;
 import com.smartcity.entity.User;
+import com.smartcity.exception.ResourceNotFoundException;
 import com.smartcity.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,17 +17,36 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<UserSummary> getAllUserSummaries() {
+        return userRepository.findAllSummaries();
+    }
+
+    public UserDirectoryPage searchDirectory(String prefix, User.Role role, String cursor, int size) {
+        return userDirectoryIndex.search(prefix, role, cursor, size);
+    }
+
+    public boolean isDirectoryReady() {
+        return userDirectoryIndex.isReady();
+    }
+
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("User", id));
     }
 
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
     }
 }
@@ -0,0 +1,205 @@
+package com.smartcity.service;
+
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.repository.ComplaintRepository;
+import com.smartcity.repository.NotificationRepository;
+import com.smartcity.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Version stamps of each user's complaint and notification lists, used as weak ETags so an
+ * unchanged poll is answered with 304 after one table lookup and no SQL.
+ *
+ * A stamp is a hash of the list's row count, highest id and latest update time, so it survives
+ * restarts and is the same on every instance. Stamps are cached in a fixed-size direct-mapped
+ * table of primitive arrays; a colliding user simply replaces the entry, and a miss costs one
+ * aggregate query. Writes publish through the cache invalidation bus, which drops the entry
+ * here after commit and on the other instances within a poll interval.
+ *
+ * Stamps are loaded from the primary: one loaded from a lagging replica would be cached and
+ * shared with every caller, answering 304 for a list that has already changed.
+ */
+@Service
+public class UserVersionStamps implements CacheInvalidationListener {
+
+    private static final int STRIPES = 64;
+
+    private static final long EMPTY = 0;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    // Rounded up to a power of two
+    @Value("${user-stamps.capacity:262144}")
+    private int capacity;
+
+    private long[] keys;
+
+    private long[] stamps;
+
+    // The same user can be asked about from another city, where its lists read as empty
+    private String[] cities;
+
+    private int mask;
+
+    private final Object[] locks = new Object[STRIPES];
+
+    // Bumped on every invalidation in the stripe, so a stamp loaded concurrently with a write is not stored
+    private final long[] generations = new long[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public enum Scope {
+        COMPLAINTS(CacheInvalidationBus.USER_COMPLAINTS),
+        NOTIFICATIONS(CacheInvalidationBus.USER_NOTIFICATIONS);
+
+        private final String region;
+
+        Scope(String region) {
+            this.region = region;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(STRIPES, capacity - 1)) << 1;
+        keys = new long[size];
+        stamps = new long[size];
+        cities = new String[size];
+        mask = size - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the weak ETag of the user's list in the current city.
+     */
+    public String getETag(Scope scope, Long userId) {
+        return "W/\"" + Long.toHexString(getStamp(scope, userId)) + "\"";
+    }
+
+    public long getStamp(Scope scope, Long userId) {
+        long key = key(scope, userId);
+        int slot = slot(key);
+        int stripe = slot & (STRIPES - 1);
+        String city = TenantContext.getCurrentCity();
+        long generation;
+        synchronized (locks[stripe]) {
+            if (keys[slot] == key && Objects.equals(cities[slot], city)) {
+                hits.increment();
+                return stamps[slot];
+            }
+            generation = generations[stripe];
+        }
+        misses.increment();
+        long stamp = load(scope, userId);
+        synchronized (locks[stripe]) {
+            if (generations[stripe] == generation) {
+                keys[slot] = key;
+                stamps[slot] = stamp;
+                cities[slot] = city;
+            }
+        }
+        return stamp;
+    }
+
+    @Override
+    public void onInvalidation(String region, String key) {
+        for (Scope scope : Scope.values()) {
+            if (scope.getRegion().equals(region)) {
+                if (key != null) {
+                    invalidate(scope, Long.valueOf(key));
+                } else {
+                    invalidateAll(scope);
+                }
+            }
+        }
+    }
+
+    private void invalidate(Scope scope, Long userId) {
+        long key = key(scope, userId);
+        int slot = slot(key);
+        int stripe = slot & (STRIPES - 1);
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            if (keys[slot] == key) {
+                keys[slot] = EMPTY;
+                cities[slot] = null;
+            }
+        }
+    }
+
+    private void invalidateAll(Scope scope) {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                generations[stripe]++;
+                for (int slot = stripe; slot < keys.length; slot += STRIPES) {
+                    if (keys[slot] != EMPTY && (keys[slot] & 1) == scope.ordinal()) {
+                        keys[slot] = EMPTY;
+                        cities[slot] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    private long load(Scope scope, Long userId) {
+        List<Object[]> rows = primaryReads.call(() -> scope == Scope.COMPLAINTS
+                ? complaintRepository.findVersionByUserId(userId)
+                : notificationRepository.findVersionByUserId(userId));
+        Object[] row = rows.get(0);
+        long stamp = mix(0x9E3779B97F4A7C15L, (Long) row[0]);
+        stamp = mix(stamp, row[1] != null ? (Long) row[1] : 0);
+        if (row.length > 2 && row[2] != null) {
+            LocalDateTime updatedAt = (LocalDateTime) row[2];
+            stamp = mix(stamp, updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano());
+        }
+        return stamp;
+    }
+
+    // Distinct users and scopes give distinct non-zero keys, since ids start at 1
+    private static long key(Scope scope, Long userId) {
+        return (userId << 1) | scope.ordinal();
+    }
+
+    private int slot(long key) {
+        return (int) (mix(0, key) & mask);
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("capacity", keys.length);
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        return statistics;
+    }
+}
@@ -0,0 +1,5 @@
+-- The analytics export reads rows changed since its last run in (timestamp, id) order across
+-- every city, which the city-leading indexes cannot serve.
+
+CREATE INDEX idx_complaints_updated ON complaints (updated_at, id);
+CREATE INDEX idx_notifications_created ON notifications (created_at, id);
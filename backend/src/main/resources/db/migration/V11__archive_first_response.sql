@@ -0,0 +1,4 @@
+-- Archived complaints keep the time of their first response, so first-response data survives
+-- archival. Rows archived before this migration have no value.
+
+ALTER TABLE complaints_archive ADD COLUMN first_response_at datetime(6);
@@ -0,0 +1,9 @@
+-- Resolution metrics are kept per city like every other city-owned table: existing sketches
+-- move to the 'default' city and the key and lookup index get city_id leading.
+
+ALTER TABLE resolution_metrics ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE resolution_metrics ALTER COLUMN city_id DROP DEFAULT;
+ALTER TABLE resolution_metrics DROP INDEX uk_resolution_metrics_key;
+ALTER TABLE resolution_metrics ADD CONSTRAINT uk_resolution_metrics_key UNIQUE (city_id, metric, category, metric_date);
+CREATE INDEX idx_resolution_metrics_city_date ON resolution_metrics (city_id, metric, metric_date);
+DROP INDEX idx_resolution_metrics_date ON resolution_metrics;
@@ -0,0 +1,78 @@
+-- Baseline schema. Every statement is guarded with IF NOT EXISTS so the script can also
+-- run against databases that were created earlier by hibernate ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint NOT NULL AUTO_INCREMENT,
+    name varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    role enum('ADMIN','CITIZEN') NOT NULL,
+    phone varchar(255),
+    address varchar(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS complaints (
+    id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    description varchar(1000) NOT NULL,
+    category varchar(255) NOT NULL,
+    status enum('PENDING','IN_PROGRESS','RESOLVED') NOT NULL,
+    created_at datetime(6),
+    updated_at datetime(6),
+    user_id bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_complaints_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id bigint NOT NULL,
+    message varchar(500) NOT NULL,
+    created_at datetime(6),
+    user_id bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notifications_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS city_news (
+    id bigint NOT NULL AUTO_INCREMENT,
+    title varchar(255) NOT NULL,
+    content varchar(2000) NOT NULL,
+    image_url varchar(255),
+    created_at datetime(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS city_services (
+    id bigint NOT NULL AUTO_INCREMENT,
+    name varchar(255) NOT NULL,
+    description varchar(1000),
+    department varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS emergency_services (
+    id bigint NOT NULL AUTO_INCREMENT,
+    service_name varchar(255) NOT NULL,
+    contact_number varchar(255) NOT NULL,
+    description varchar(500),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name varchar(255) NOT NULL,
+    next_val bigint,
+    PRIMARY KEY (sequence_name)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    key_hash varchar(64) NOT NULL,
+    request_hash varchar(64) NOT NULL,
+    status_code integer NOT NULL,
+    response_body TEXT,
+    created_at datetime(6) NOT NULL,
+    expires_at datetime(6) NOT NULL,
+    PRIMARY KEY (key_hash),
+    INDEX idx_idempotency_expires_at (expires_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,20 @@
+-- Pooled id generators hand out (next_val - 50, next_val] as their next block, so each one
+-- must start at least 50 past the highest id already present in its table.
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'complaints', 0 FROM (SELECT 1 AS one) seed
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE sequence_name = 'complaints');
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'notifications', 0 FROM (SELECT 1 AS one) seed
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE sequence_name = 'notifications');
+
+UPDATE id_generators
+SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM complaints)
+WHERE sequence_name = 'complaints'
+  AND next_val < (SELECT COALESCE(MAX(id), 0) + 50 FROM complaints);
+
+UPDATE id_generators
+SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM notifications)
+WHERE sequence_name = 'notifications'
+  AND next_val < (SELECT COALESCE(MAX(id), 0) + 50 FROM notifications);
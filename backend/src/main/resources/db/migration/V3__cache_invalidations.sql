@@ -0,0 +1,11 @@
+-- Change log polled by every backend instance to evict what other instances modified.
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id bigint NOT NULL AUTO_INCREMENT,
+    region varchar(64) NOT NULL,
+    entity_key varchar(255),
+    source_node varchar(64) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_cache_invalidations_created_at (created_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,18 @@
+-- Resolved complaints older than complaint-archive.min-age-days are moved here in chunks,
+-- keeping the complaints table down to the live working set.
+
+CREATE TABLE IF NOT EXISTS complaints_archive (
+    id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    description varchar(1000) NOT NULL,
+    category varchar(255) NOT NULL,
+    status enum('PENDING','IN_PROGRESS','RESOLVED') NOT NULL,
+    created_at datetime(6),
+    updated_at datetime(6),
+    user_id bigint NOT NULL,
+    archive_month integer NOT NULL,
+    archived_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_complaints_archive_user_id (user_id),
+    INDEX idx_complaints_archive_month (archive_month)
+) ENGINE=InnoDB;
@@ -0,0 +1,14 @@
+-- Metadata of complaint photos; the bytes live in the content-addressed attachment store.
+
+CREATE TABLE IF NOT EXISTS complaint_attachments (
+    id bigint NOT NULL AUTO_INCREMENT,
+    complaint_id bigint NOT NULL,
+    content_hash varchar(64) NOT NULL,
+    content_type varchar(100) NOT NULL,
+    original_filename varchar(255),
+    size_bytes bigint NOT NULL,
+    created_at datetime(6),
+    PRIMARY KEY (id),
+    INDEX idx_complaint_attachments_complaint_id (complaint_id),
+    INDEX idx_complaint_attachments_hash (content_hash)
+) ENGINE=InnoDB;
@@ -0,0 +1,16 @@
+-- First-response and resolution durations, one mergeable quantile sketch per category and day.
+
+ALTER TABLE complaints ADD COLUMN first_response_at datetime(6);
+
+CREATE TABLE IF NOT EXISTS resolution_metrics (
+    id bigint NOT NULL AUTO_INCREMENT,
+    metric enum('FIRST_RESPONSE','RESOLUTION') NOT NULL,
+    category varchar(255) NOT NULL,
+    metric_date date NOT NULL,
+    sample_count bigint NOT NULL,
+    sketch BLOB NOT NULL,
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_resolution_metrics_key (metric, category, metric_date),
+    INDEX idx_resolution_metrics_date (metric, metric_date)
+) ENGINE=InnoDB;
@@ -0,0 +1,20 @@
+-- Bulk imports of legacy users and complaints; records_processed is the resume checkpoint.
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id bigint NOT NULL AUTO_INCREMENT,
+    type enum('USERS','COMPLAINTS') NOT NULL,
+    format enum('CSV','NDJSON') NOT NULL,
+    file_path varchar(500) NOT NULL,
+    status enum('QUEUED','RUNNING','COMPLETED','FAILED','CANCELLED') NOT NULL,
+    records_processed bigint NOT NULL,
+    inserted_count bigint NOT NULL,
+    rejected_count bigint NOT NULL,
+    rows_per_second float(53) NOT NULL,
+    rejects_path varchar(500),
+    error_message varchar(1000),
+    created_at datetime(6),
+    started_at datetime(6),
+    updated_at datetime(6),
+    finished_at datetime(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,43 @@
+-- Multi-city tenancy: every city-owned table gets a city_id discriminator, filled with
+-- 'default' for existing rows, and the lookup indexes are rebuilt with city_id leading.
+
+ALTER TABLE users ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE users ALTER COLUMN city_id DROP DEFAULT;
+ALTER TABLE users DROP INDEX uk_users_email;
+ALTER TABLE users ADD CONSTRAINT uk_users_city_email UNIQUE (city_id, email);
+
+ALTER TABLE complaints ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE complaints ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_complaints_city_user_created ON complaints (city_id, user_id, created_at);
+CREATE INDEX idx_complaints_city_status ON complaints (city_id, status);
+CREATE INDEX idx_complaints_city_created ON complaints (city_id, created_at);
+
+ALTER TABLE notifications ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE notifications ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_notifications_city_user_created ON notifications (city_id, user_id, created_at);
+CREATE INDEX idx_notifications_city_created ON notifications (city_id, created_at);
+
+ALTER TABLE city_news ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE city_news ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_city_news_city_created ON city_news (city_id, created_at);
+
+ALTER TABLE city_services ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE city_services ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_city_services_city ON city_services (city_id);
+
+ALTER TABLE emergency_services ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE emergency_services ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_emergency_services_city ON emergency_services (city_id);
+
+ALTER TABLE complaints_archive ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE complaints_archive ALTER COLUMN city_id DROP DEFAULT;
+CREATE INDEX idx_complaints_archive_city_user ON complaints_archive (city_id, user_id);
+CREATE INDEX idx_complaints_archive_city_month ON complaints_archive (city_id, archive_month);
+DROP INDEX idx_complaints_archive_user_id ON complaints_archive;
+DROP INDEX idx_complaints_archive_month ON complaints_archive;
+
+ALTER TABLE import_jobs ADD COLUMN city_id varchar(32) NOT NULL DEFAULT 'default' AFTER id;
+ALTER TABLE import_jobs ALTER COLUMN city_id DROP DEFAULT;
+
+-- Null for invalidations published by background work that spans every city
+ALTER TABLE cache_invalidations ADD COLUMN city_id varchar(32) AFTER entity_key;
@@ -0,0 +1,15 @@
+-- Append-only status transitions of complaints. Statuses are Complaint.Status ordinals
+-- (0 PENDING, 1 IN_PROGRESS, 2 RESOLVED). No foreign key, so archived complaints keep theirs.
+
+CREATE TABLE IF NOT EXISTS complaint_status_changes (
+    id bigint NOT NULL AUTO_INCREMENT,
+    city_id varchar(32) NOT NULL,
+    complaint_id bigint NOT NULL,
+    from_status tinyint NOT NULL,
+    to_status tinyint NOT NULL,
+    changed_at datetime(6) NOT NULL,
+    changed_by bigint,
+    PRIMARY KEY (id),
+    INDEX idx_complaint_status_changes_city_complaint (city_id, complaint_id, id),
+    INDEX idx_complaint_status_changes_city_changed (city_id, changed_at)
+) ENGINE=InnoDB;
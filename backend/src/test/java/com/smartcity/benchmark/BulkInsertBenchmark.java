@@ -0,0 +1,137 @@
+package com.smartcity.benchmark;
+
+import com.smartcity.SmartCityApplication;
+import com.smartcity.entity.Complaint;
+import com.smartcity.entity.Notification;
+import com.smartcity.entity.User;
+import com.smartcity.repository.UserRepository;
+import com.smartcity.security.TenantContext;
+import com.smartcity.security.UserDetailsImpl;
+import com.smartcity.service.ComplaintService;
+import com.smartcity.service.NotificationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complaint and notification ingestion in rows per second, one row per transaction (the path
+ * every client used before) against the batched save paths, with JDBC batching off
+ * (batch_size=1) and on (batch_size=50). Pooled ids are what let Hibernate batch the inserts
+ * at all; with IDENTITY every row would need its own round trip to learn its id.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ComplaintService complaintService;
+    private NotificationService notificationService;
+    private Long citizenId;
+    private List<Long> recipients;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(SmartCityApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "access-log.enabled=false",
+                        "request-budget.enabled=false")
+                .run();
+        complaintService = context.getBean(ComplaintService.class);
+        notificationService = context.getBean(NotificationService.class);
+
+        // Services write into the city of the signed-in user and audit admin actions. Global, as
+        // JMH does not promise to run iterations on the thread that ran the setup.
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        signIn(new UserDetailsImpl(null, "setup", "setup", TenantContext.DEFAULT_CITY, null, List.of()));
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User admin = userRepository.save(user("bench-admin@example.com", User.Role.ADMIN));
+        citizenId = userRepository.save(user("bench-citizen@example.com", User.Role.CITIZEN)).getId();
+        recipients = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            recipients.add(citizenId);
+        }
+        signIn(UserDetailsImpl.build(admin));
+    }
+
+    @TearDown
+    public void stop() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public int complaintsOneByOne() {
+        int saved = 0;
+        for (Complaint complaint : complaints()) {
+            complaintService.createComplaint(complaint, citizenId);
+            saved++;
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public List<Complaint> complaintsBatched() {
+        return complaintService.createComplaints(complaints(), citizenId);
+    }
+
+    @Benchmark
+    public int notificationsOneByOne() {
+        int saved = 0;
+        for (Long recipient : recipients) {
+            notificationService.createNotification("Water supply restored", recipient);
+            saved++;
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public List<Notification> notificationsBatched() {
+        return notificationService.createNotifications("Water supply restored", recipients);
+    }
+
+    private static List<Complaint> complaints() {
+        List<Complaint> complaints = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Complaint complaint = new Complaint();
+            complaint.setTitle("Streetlight out #" + i);
+            complaint.setDescription("The streetlight at the corner has been dark since Monday");
+            complaint.setCategory("Electricity");
+            complaints.add(complaint);
+        }
+        return complaints;
+    }
+
+    private static void signIn(UserDetailsImpl principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static User user(String email, User.Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("{noop}benchmark");
+        user.setRole(role);
+        return user;
+    }
+}
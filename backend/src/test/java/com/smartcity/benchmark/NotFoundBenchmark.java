@@ -0,0 +1,78 @@
+package com.smartcity.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.exception.GlobalExceptionHandler;
+import com.smartcity.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a lookup of an unknown id, thrown from below a stack as deep as a request
+ * thread's (filters, security, MVC, proxies, repository) and turned into a response body.
+ * The old path threw a RuntimeException with a concatenated message and a full stack trace and
+ * serialized a fresh error body; the current one throws a stackless ResourceNotFoundException
+ * and writes the cached problem bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NotFoundBenchmark {
+
+    @Param({"32", "160"})
+    private int stackDepth;
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler handler;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        handler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(handler, "objectMapper", objectMapper);
+    }
+
+    @Benchmark
+    public byte[] runtimeExceptionWithStackTrace() throws Exception {
+        try {
+            return descend(stackDepth, true);
+        } catch (RuntimeException e) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("timestamp", System.currentTimeMillis());
+            body.put("status", 500);
+            body.put("error", "Internal Server Error");
+            body.put("message", e.getMessage());
+            body.put("path", "/api/complaints/" + id);
+            return objectMapper.writeValueAsBytes(body);
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessWithCachedProblem() throws Exception {
+        try {
+            return descend(stackDepth, false);
+        } catch (ResourceNotFoundException e) {
+            ResponseEntity<byte[]> response = handler.handleNotFound(e);
+            return response.getBody();
+        }
+    }
+
+    private byte[] descend(int depth, boolean legacy) {
+        if (depth > 0) {
+            return descend(depth - 1, legacy);
+        }
+        long missing = ++id;
+        if (legacy) {
+            throw new RuntimeException("Complaint not found with id: " + missing);
+        }
+        throw new ResourceNotFoundException("Complaint", missing);
+    }
+}
@@ -0,0 +1,101 @@
+package com.smartcity.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds GradientLimit synthetic latencies with the lane kept busy at its limit, using the
+ * defaults of ConcurrencyLimitFilter: initial 20, between 2 and 200, tolerance 1.5, smoothing 0.2.
+ */
+class GradientLimitTest {
+
+    private static final long FAST_MS = 10;
+
+    private static final long SLOW_MS = 100;
+
+    @Test
+    void growsWhileLatencyIsSteady() {
+        GradientLimit limit = newLimit();
+        sample(limit, FAST_MS, 200);
+
+        assertEquals(200, limit(limit));
+    }
+
+    @Test
+    void shrinksWhenLatencyGrowsAndRecovers() {
+        GradientLimit limit = newLimit();
+        sample(limit, FAST_MS, 200);
+
+        int before = limit(limit);
+        sample(limit, SLOW_MS, 5);
+        int shrunk = limit(limit);
+        assertTrue(shrunk < before, "limit " + shrunk + " after latency grew from " + before);
+        sample(limit, SLOW_MS, 50);
+        assertTrue(limit(limit) <= 10, "limit " + limit(limit) + " while requests queue");
+
+        sample(limit, FAST_MS, 200);
+        assertEquals(200, limit(limit));
+    }
+
+    @Test
+    void toleratesLatencyWithinTolerance() {
+        GradientLimit limit = newLimit();
+        sample(limit, FAST_MS, 200);
+
+        // 1.4 times the long-term average is still within the tolerance of 1.5
+        sample(limit, FAST_MS * 14 / 10, 20);
+        assertEquals(200, limit(limit));
+    }
+
+    @Test
+    void doesNotGrowWhileLaneIsQuiet() {
+        GradientLimit limit = newLimit();
+        for (int i = 0; i < 200; i++) {
+            int inflight = limit.tryAcquire();
+            limit.release(inflight, TimeUnit.MILLISECONDS.toNanos(FAST_MS), false);
+        }
+
+        assertEquals(20, limit(limit));
+    }
+
+    @Test
+    void serverErrorsCutLimit() {
+        GradientLimit limit = newLimit();
+        for (int i = 0; i < 3; i++) {
+            limit.release(limit.tryAcquire(), TimeUnit.MILLISECONDS.toNanos(FAST_MS), true);
+        }
+
+        // 20 * 0.9^3
+        assertEquals(14, limit(limit));
+    }
+
+    @Test
+    void rejectsOverLimit() {
+        GradientLimit limit = new GradientLimit(2, 2, 200, 1.5, 0.2);
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+        assertEquals(1L, limit.getStatistics().get("rejected"));
+    }
+
+    private static GradientLimit newLimit() {
+        return new GradientLimit(20, 2, 200, 1.5, 0.2);
+    }
+
+    // Each request starts with the lane full, as under sustained load
+    private static void sample(GradientLimit limit, long rttMillis, int count) {
+        for (int i = 0; i < count; i++) {
+            int inflightAtStart = limit(limit);
+            limit.tryAcquire();
+            limit.release(inflightAtStart, TimeUnit.MILLISECONDS.toNanos(rttMillis), false);
+        }
+    }
+
+    private static int limit(GradientLimit limit) {
+        return (int) limit.getStatistics().get("limit");
+    }
+}
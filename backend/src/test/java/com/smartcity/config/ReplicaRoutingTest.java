@@ -0,0 +1,102 @@
+package com.smartcity.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against two separate databases, a primary with the seed dataset and a "replica" with the
+ * schema only, and checks that writes made after a read-only lookup in the same request still
+ * land on the primary. Idempotent writes are the common case: the key is looked up in a
+ * read-only transaction before the action runs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource.replica.flyway-migrate=true",
+        "datasource.replica.read-your-writes-ms=0",
+        "access-log.enabled=false"})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final String PASSWORD = "password";
+
+    // Seed ids: pending complaint 1 belongs to citizen 3
+    private static final long CITIZEN_ID = 3;
+    private static final long COMPLAINT_ID = 1;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(readWriteRoutingDataSource.getPools().get("replica"));
+    }
+
+    @Test
+    void keyedComplaintLandsOnPrimary() {
+        String token = login("dana@example.com");
+        ResponseEntity<String> response = send(HttpMethod.POST, "/api/complaints?userId=" + CITIZEN_ID,
+                Map.of("title", "Broken bench", "description", "The bench in the park is broken",
+                        "category", "Parks"), token, "complaint-on-primary");
+
+        assertEquals(200, response.getStatusCode().value(), response.getBody());
+        assertEquals(1, count(primary, "SELECT COUNT(*) FROM complaints WHERE title = 'Broken bench'"));
+        assertEquals(0, count(replica, "SELECT COUNT(*) FROM complaints"));
+        assertEquals(0, count(replica, "SELECT COUNT(*) FROM idempotency_records"));
+    }
+
+    @Test
+    void keyedStatusChangeLandsOnPrimary() {
+        String token = login("admin@example.com");
+        ResponseEntity<String> response = send(HttpMethod.PUT, "/api/complaints/" + COMPLAINT_ID + "/status",
+                Map.of("status", "IN_PROGRESS"), token, "status-on-primary");
+
+        assertEquals(200, response.getStatusCode().value(), response.getBody());
+        assertEquals(1, count(primary, "SELECT COUNT(*) FROM complaints WHERE id = " + COMPLAINT_ID
+                + " AND status = 'IN_PROGRESS'"));
+        assertEquals(0, count(replica, "SELECT COUNT(*) FROM complaint_status_changes"));
+    }
+
+    private ResponseEntity<String> send(HttpMethod method, String uri, Object body, String token,
+                                        String idempotencyKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set("Idempotency-Key", idempotencyKey);
+        return rest.exchange(uri, method, new HttpEntity<>(body, headers), String.class);
+    }
+
+    private String login(String email) {
+        ResponseEntity<Map> response = rest.postForEntity("/api/auth/login",
+                Map.of("email", email, "password", PASSWORD), Map.class);
+        assertEquals(200, response.getStatusCode().value(), "login of " + email);
+        return (String) response.getBody().get("token");
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,339 @@
+package com.smartcity.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Calls every API endpoint against the seed dataset (db/seed) and fails when one executes more
+ * SQL statements or allocates more than its entry in request-budgets.json allows. Each call is
+ * made {@value #ROUNDS} times; the first only warms up class loading and caches. Latency budgets
+ * are not checked here, as build machines vary too much.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "request-budget.enabled=true",
+        "request-budget.warmup-requests=1",
+        "access-log.enabled=false",
+        "complaint-archive.pause-ms=0"})
+@ActiveProfiles("test")
+class RequestBudgetTest {
+
+    private static final int ROUNDS = 3;
+
+    private static final String PASSWORD = "password";
+
+    // The measurement itself; calling DELETE would reset what was measured so far
+    private static final Set<String> NOT_MEASURED = Set.of(
+            "GET /api/admin/request-budgets", "DELETE /api/admin/request-budgets");
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private RequestBudgetFilter requestBudgetFilter;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Value("${import.base-dir}")
+    private String importDir;
+
+    private record Call(String endpoint, String role, Set<Integer> statuses, IntFunction<Request> request) {
+    }
+
+    private record Request(HttpMethod method, String uri, Object body) {
+    }
+
+    private String adminToken;
+    private String citizenToken;
+
+    // Seed ids: complaint 1 and every third after it are pending and belong to citizen 3
+    private static final long CITIZEN_ID = 3;
+    private static final long COMPLAINT_ID = 1;
+
+    @Test
+    void everyEndpointStaysWithinItsBudget() throws Exception {
+        adminToken = login("admin@example.com");
+        citizenToken = login("dana@example.com");
+        Files.createDirectories(Path.of(importDir));
+        Files.writeString(Path.of(importDir, "budget-users.csv"),
+                "name,email,password,role\nImported User,imported@example.com,secret123,CITIZEN\n");
+        String hash = uploadAttachment();
+        awaitThumbnail(hash);
+
+        List<Call> calls = calls(hash);
+        requestBudgetFilter.reset();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Call call : calls) {
+                Request request = call.request().apply(round);
+                ResponseEntity<byte[]> response = send(request, call.role());
+                if (!call.statuses().contains(response.getStatusCode().value())) {
+                    fail(call.endpoint() + " (" + request.uri() + ") returned " + response.getStatusCode()
+                            + ", expected " + call.statuses() + ": " + body(response));
+                }
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        Set<String> measured = new TreeSet<>();
+        int violations = 0;
+        for (Map<String, Object> row : requestBudgetFilter.getStatistics()) {
+            String endpoint = (String) row.get("endpoint");
+            measured.add(endpoint);
+            long statements = number(row, "maxStatements");
+            long statementBudget = number(row, "budgetStatements");
+            long allocatedKb = number(row, "maxAllocatedKb");
+            long allocatedKbBudget = number(row, "budgetAllocatedKb");
+            boolean over = statements > statementBudget || allocatedKb > allocatedKbBudget;
+            if (over) {
+                violations++;
+            }
+            report.append(String.format("%s %-50s statements %4d / %-5d allocatedKb %7d / %-7d%s%n",
+                    over ? "!!" : "  ", endpoint, statements, statementBudget, allocatedKb, allocatedKbBudget,
+                    over ? diff(statements, statementBudget, allocatedKb, allocatedKbBudget) : ""));
+        }
+        System.out.println("Request budgets (max measured / budget):");
+        System.out.print(report);
+
+        Set<String> missing = new TreeSet<>(endpoints());
+        missing.removeAll(measured);
+        missing.removeAll(NOT_MEASURED);
+        if (violations > 0 || !missing.isEmpty()) {
+            fail((violations > 0 ? violations + " endpoint(s) over budget (!!):\n" + report : "")
+                    + (missing.isEmpty() ? "" : "Endpoints not called by this test: " + missing));
+        }
+    }
+
+    private List<Call> calls(String hash) {
+        List<Call> calls = new ArrayList<>();
+        // Authentication
+        calls.add(call("POST /api/auth/login", null, round -> post("/api/auth/login",
+                Map.of("email", "dana@example.com", "password", PASSWORD))));
+        calls.add(call("GET /api/auth/email-available", null,
+                round -> get("/api/auth/email-available?email=nobody@example.com")));
+        calls.add(call("POST /api/auth/signup", null, round -> post("/api/auth/signup",
+                Map.of("name", "New Citizen", "email", "signup" + round + "@example.com",
+                        "password", PASSWORD, "role", "CITIZEN"))));
+
+        // Citizen
+        calls.add(call("POST /api/complaints", "citizen", round -> post("/api/complaints?userId=" + CITIZEN_ID,
+                complaint(round))));
+        calls.add(call("POST /api/complaints/batch", "citizen",
+                round -> post("/api/complaints/batch?userId=" + CITIZEN_ID,
+                        List.of(complaint(round), complaint(round), complaint(round), complaint(round)))));
+        calls.add(call("GET /api/complaints/user/{userId}", "citizen",
+                round -> get("/api/complaints/user/" + CITIZEN_ID)));
+        calls.add(call("GET /api/complaints/{id}", "citizen", round -> get("/api/complaints/" + COMPLAINT_ID)));
+        calls.add(call("GET /api/complaints/{id}/timeline", "citizen",
+                round -> get("/api/complaints/" + COMPLAINT_ID + "/timeline")));
+        calls.add(call("POST /api/complaints/{complaintId}/attachments", "citizen",
+                round -> new Request(HttpMethod.POST, "/api/complaints/" + COMPLAINT_ID + "/attachments", image())));
+        calls.add(call("GET /api/complaints/{complaintId}/attachments", "citizen",
+                round -> get("/api/complaints/" + COMPLAINT_ID + "/attachments")));
+        calls.add(call("GET /api/attachments/{hash}", "citizen", round -> get("/api/attachments/" + hash)));
+        calls.add(call("GET /api/attachments/{hash}/thumbnail", "citizen",
+                round -> get("/api/attachments/" + hash + "/thumbnail")));
+        calls.add(call("GET /api/complaints/archive/user/{userId}", "citizen",
+                round -> get("/api/complaints/archive/user/" + CITIZEN_ID)));
+        calls.add(call("GET /api/notifications/user/{userId}", "citizen",
+                round -> get("/api/notifications/user/" + CITIZEN_ID)));
+        calls.add(call("GET /api/dashboard", "citizen", round -> get("/api/dashboard")));
+        calls.add(call("GET /api/users/{id}", "citizen", round -> get("/api/users/" + CITIZEN_ID)));
+
+        // Public directory
+        calls.add(call("GET /api/news", "citizen", round -> get("/api/news")));
+        calls.add(call("GET /api/news/{id}", "citizen", round -> get("/api/news/1")));
+        calls.add(call("GET /api/city-services", "citizen", round -> get("/api/city-services")));
+        calls.add(call("GET /api/city-services/{id}", "citizen", round -> get("/api/city-services/1")));
+        calls.add(call("GET /api/emergency-services", "citizen", round -> get("/api/emergency-services")));
+        calls.add(call("GET /api/emergency-services/{id}", "citizen", round -> get("/api/emergency-services/1")));
+
+        // Admin: seeded rows 4 to 6 of each directory and pending complaints 4, 7 and 10 are
+        // changed once per round
+        calls.add(call("POST /api/news", "admin", round -> post("/api/news",
+                Map.of("title", "Road closure " + round, "content", "Main St is closed for repairs"))));
+        calls.add(call("DELETE /api/news/{id}", "admin", round -> delete("/api/news/" + (8 + round))));
+        calls.add(call("POST /api/city-services", "admin", round -> post("/api/city-services",
+                Map.of("name", "Tree Pruning " + round, "department", "Parks"))));
+        calls.add(call("DELETE /api/city-services/{id}", "admin",
+                round -> delete("/api/city-services/" + (4 + round))));
+        calls.add(call("POST /api/emergency-services", "admin", round -> post("/api/emergency-services",
+                Map.of("serviceName", "Animal Rescue " + round, "contactNumber", "1962"))));
+        calls.add(call("DELETE /api/emergency-services/{id}", "admin",
+                round -> delete("/api/emergency-services/" + (4 + round))));
+        calls.add(call("GET /api/complaints", "admin", round -> get("/api/complaints")));
+        calls.add(call("GET /api/complaints/timelines", "admin", round -> get("/api/complaints/timelines")));
+        calls.add(call("PUT /api/complaints/{id}/status", "admin", round -> new Request(HttpMethod.PUT,
+                "/api/complaints/" + (4 + 3 * round) + "/status", Map.of("status", "IN_PROGRESS"))));
+        calls.add(call("POST /api/notifications/{userId}", "admin",
+                round -> post("/api/notifications/" + CITIZEN_ID, Map.of("message", "Your complaint was updated"))));
+        calls.add(call("POST /api/notifications/batch", "admin", round -> post("/api/notifications/batch",
+                Map.of("message", "Water supply restored", "userIds", List.of(2, 3, 4)))));
+        calls.add(call("GET /api/notifications", "admin", round -> get("/api/notifications")));
+        calls.add(call("GET /api/dashboard/stats", "admin", round -> get("/api/dashboard/stats")));
+        calls.add(call("GET /api/metrics/resolution", "admin", round -> get("/api/metrics/resolution")));
+        calls.add(call("GET /api/users", "admin", round -> get("/api/users")));
+        calls.add(call("GET /api/users/directory", "admin", round -> get("/api/users/directory?q=Ci")));
+        calls.add(call("GET /api/admin/audit", "admin", round -> get("/api/admin/audit")));
+        calls.add(call("GET /api/admin/audit/stats", "admin", round -> get("/api/admin/audit/stats")));
+        calls.add(call("GET /api/admin/bulkheads", "admin", round -> get("/api/admin/bulkheads")));
+        calls.add(call("GET /api/admin/concurrency-limits", "admin", round -> get("/api/admin/concurrency-limits")));
+        calls.add(call("GET /api/admin/cache", "admin", round -> get("/api/admin/cache")));
+        calls.add(call("DELETE /api/admin/cache", "admin", round -> delete("/api/admin/cache")));
+        calls.add(call("POST /api/admin/imports", "admin", Set.of(202), round -> post("/api/admin/imports",
+                Map.of("type", "USERS", "file", "budget-users.csv", "format", "CSV"))));
+        calls.add(call("GET /api/admin/imports", "admin", round -> get("/api/admin/imports")));
+        calls.add(call("GET /api/admin/imports/{id}", "admin", round -> get("/api/admin/imports/1")));
+        // Whether the job is still running decides between these two, so either answer is fine
+        calls.add(call("POST /api/admin/imports/{id}/cancel", "admin", Set.of(200, 202, 409),
+                round -> post("/api/admin/imports/1/cancel", null)));
+        calls.add(call("POST /api/admin/imports/{id}/resume", "admin", Set.of(200, 202, 409),
+                round -> post("/api/admin/imports/1/resume", null)));
+        calls.add(call("GET /api/admin/analytics-export", "admin", round -> get("/api/admin/analytics-export")));
+        calls.add(call("POST /api/admin/analytics-export/run", "admin",
+                round -> post("/api/admin/analytics-export/run", null)));
+        calls.add(call("GET /api/complaints/archive", "admin", round -> get("/api/complaints/archive")));
+        // Last, as it moves the resolved complaints out of the lists above
+        calls.add(call("POST /api/complaints/archive/run", "admin", round -> post("/api/complaints/archive/run", null)));
+        return calls;
+    }
+
+    private static Call call(String endpoint, String role, IntFunction<Request> request) {
+        return call(endpoint, role, Set.of(200), request);
+    }
+
+    private static Call call(String endpoint, String role, Set<Integer> statuses, IntFunction<Request> request) {
+        return new Call(endpoint, role, statuses, request);
+    }
+
+    private static Request get(String uri) {
+        return new Request(HttpMethod.GET, uri, null);
+    }
+
+    private static Request post(String uri, Object body) {
+        return new Request(HttpMethod.POST, uri, body);
+    }
+
+    private static Request delete(String uri) {
+        return new Request(HttpMethod.DELETE, uri, null);
+    }
+
+    private static Map<String, String> complaint(int round) {
+        return Map.of("title", "Pothole " + round, "description", "Deep pothole outside the school",
+                "category", "Roads");
+    }
+
+    private ResponseEntity<byte[]> send(Request request, String role) {
+        HttpHeaders headers = new HttpHeaders();
+        if (role != null) {
+            headers.setBearerAuth(role.equals("admin") ? adminToken : citizenToken);
+        }
+        return rest.exchange(request.uri(), request.method(), new HttpEntity<>(request.body(), headers), byte[].class);
+    }
+
+    private String login(String email) {
+        ResponseEntity<Map> response = rest.postForEntity("/api/auth/login",
+                Map.of("email", email, "password", PASSWORD), Map.class);
+        assertEquals(200, response.getStatusCode().value(), "login of " + email);
+        return (String) response.getBody().get("token");
+    }
+
+    private String uploadAttachment() {
+        ResponseEntity<byte[]> response = send(new Request(HttpMethod.POST,
+                "/api/complaints/" + COMPLAINT_ID + "/attachments", image()), "citizen");
+        assertEquals(200, response.getStatusCode().value(), body(response));
+        String json = body(response);
+        int start = json.indexOf("\"contentHash\":\"") + "\"contentHash\":\"".length();
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    private void awaitThumbnail(String hash) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (send(get("/api/attachments/" + hash + "/thumbnail"), "citizen").getStatusCode().is2xxSuccessful()) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("No thumbnail for " + hash);
+    }
+
+    private static MultiValueMap<String, Object> image() {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 255 / image.getWidth()) << 16 | (y * 255 / image.getHeight()) << 8);
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("file", new ByteArrayResource(png.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "pothole.png";
+            }
+        });
+        return form;
+    }
+
+    private Set<String> endpoints() {
+        Set<String> endpoints = new TreeSet<>();
+        handlerMapping.getHandlerMethods().keySet().forEach(info -> info.getPatternValues().stream()
+                .filter(pattern -> pattern.startsWith("/api/"))
+                .forEach(pattern -> info.getMethodsCondition().getMethods()
+                        .forEach(method -> endpoints.add(method.name() + " " + pattern))));
+        return endpoints;
+    }
+
+    private static long number(Map<String, Object> row, String key) {
+        return ((Number) row.get(key)).longValue();
+    }
+
+    private static String diff(long statements, long statementBudget, long allocatedKb, long allocatedKbBudget) {
+        StringBuilder diff = new StringBuilder("  <-");
+        if (statements > statementBudget) {
+            diff.append(" statements +").append(statements - statementBudget);
+        }
+        if (allocatedKb > allocatedKbBudget) {
+            diff.append(" allocatedKb +").append(allocatedKb - allocatedKbBudget);
+        }
+        return diff.toString();
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return response.getBody() != null ? new String(response.getBody()) : "";
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartcity.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fills filters to their expected size with email-like values and probes them with values that
+ * were never added.
+ */
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+
+    private static final int PROBES = 200_000;
+
+    @Test
+    void neverMissesAddedValues() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add(email(i));
+        }
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain(email(i)), email(i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearConfiguredRate() {
+        for (double rate : new double[] {0.01, 0.001}) {
+            BloomFilter filter = new BloomFilter(INSERTIONS, rate);
+            for (int i = 0; i < INSERTIONS; i++) {
+                filter.add(email(i));
+            }
+            int falsePositives = 0;
+            for (int i = 0; i < PROBES; i++) {
+                if (filter.mightContain("probe" + i + "@example.org")) {
+                    falsePositives++;
+                }
+            }
+            double measured = (double) falsePositives / PROBES;
+            assertTrue(measured > rate / 2 && measured < rate * 1.5,
+                    "false positive rate " + measured + " for a filter configured for " + rate);
+        }
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        assertFalse(filter.mightContain(email(0)));
+    }
+
+    private static String email(int i) {
+        return "citizen" + i + "@example.com";
+    }
+}
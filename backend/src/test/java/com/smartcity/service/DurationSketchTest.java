@@ -0,0 +1,106 @@
+package com.smartcity.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares DurationSketch quantiles with exact quantiles of the same values. Durations are spread
+ * log-uniformly from seconds to months, so every range of buckets is exercised.
+ */
+class DurationSketchTest {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // As advertised in the class comment
+    private static final double RELATIVE_ERROR = 0.016;
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    void quantilesAreWithinRelativeError() {
+        long[] values = values(new Random(42));
+        DurationSketch sketch = new DurationSketch();
+        for (long value : values) {
+            sketch.record(value);
+        }
+
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(VALUES, sketch.getCount());
+        assertEquals(sorted[VALUES - 1], sketch.getMax());
+        for (double quantile : QUANTILES) {
+            long exact = sorted[(int) Math.ceil(quantile * VALUES) - 1];
+            long estimate = sketch.quantile(quantile);
+            assertTrue(Math.abs(estimate - exact) <= RELATIVE_ERROR * exact,
+                    "p" + Math.round(quantile * 100) + " was " + estimate + ", exactly " + exact);
+        }
+    }
+
+    @Test
+    void valuesBelow128AreExact() {
+        DurationSketch sketch = new DurationSketch();
+        for (long value = 0; value < 128; value++) {
+            sketch.record(value);
+        }
+        assertEquals(63, sketch.quantile(0.5));
+        assertEquals(115, sketch.quantile(0.9));
+        assertEquals(126, sketch.quantile(0.99));
+    }
+
+    @Test
+    void mergedSketchesEqualCombinedSketch() {
+        Random random = new Random(7);
+        DurationSketch combined = new DurationSketch();
+        DurationSketch[] parts = {new DurationSketch(), new DurationSketch(), new DurationSketch()};
+        for (long value : values(random)) {
+            combined.record(value);
+            parts[random.nextInt(parts.length)].record(value);
+        }
+
+        DurationSketch merged = new DurationSketch();
+        for (DurationSketch part : parts) {
+            merged.merge(part);
+        }
+        assertEquals(combined.getCount(), merged.getCount());
+        assertEquals(combined.getMax(), merged.getMax());
+        for (double quantile : QUANTILES) {
+            assertEquals(combined.quantile(quantile), merged.quantile(quantile));
+        }
+        assertArrayEquals(combined.toBytes(), merged.toBytes());
+    }
+
+    @Test
+    void survivesSerialization() {
+        DurationSketch sketch = new DurationSketch();
+        for (long value : values(new Random(3))) {
+            sketch.record(value);
+        }
+        DurationSketch copy = DurationSketch.fromBytes(sketch.toBytes());
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertEquals(sketch.getMax(), copy.getMax());
+        for (double quantile : QUANTILES) {
+            assertEquals(sketch.quantile(quantile), copy.quantile(quantile));
+        }
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        assertNull(new DurationSketch().quantile(0.5));
+    }
+
+    private static long[] values(Random random) {
+        long[] values = new long[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            // 1 second to about 115 days
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(10_000_000));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,142 @@
+package com.smartcity.service;
+
+import com.smartcity.service.ParquetWriter.Column;
+import com.smartcity.service.ParquetWriter.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes files with ParquetWriter and reads them back with DuckDB, a Parquet reader that shares
+ * no code with it. Enough rows for several row groups and several pages per column chunk, with
+ * nulls in every optional column and multi-byte strings.
+ */
+class ParquetWriterTest {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", Type.INT64, false),
+            new Column("city_id", Type.STRING, false),
+            new Column("user_id", Type.INT64, true),
+            new Column("title", Type.STRING, true),
+            new Column("updated_at", Type.TIMESTAMP, true));
+
+    private static final int ROWS = 25_000;
+
+    // Two full row groups of two pages each, and a short last one
+    private static final int ROW_GROUP_ROWS = 10_000;
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 30, 0, 59, 58, 123_456_789);
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void readsBackEveryValue() throws Exception {
+        List<Object[]> rows = rows();
+        Path file = write(rows);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, city_id, user_id, title, epoch_ms(updated_at)"
+                     + " FROM read_parquet('" + file + "') ORDER BY id")) {
+            int count = 0;
+            while (resultSet.next()) {
+                Object[] row = rows.get(count++);
+                assertEquals(row[0], resultSet.getLong(1));
+                assertEquals(row[1], resultSet.getString(2));
+                assertEquals(row[2], nullableLong(resultSet, 3), "user_id of row " + row[0]);
+                assertEquals(row[3], resultSet.getString(4), "title of row " + row[0]);
+                // Written as UTC milliseconds; sub-millisecond digits are dropped
+                Long expected = row[4] != null
+                        ? ((LocalDateTime) row[4]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : null;
+                assertEquals(expected, nullableLong(resultSet, 5), "updated_at of row " + row[0]);
+            }
+            assertEquals(ROWS, count);
+        }
+    }
+
+    @Test
+    void writesRowGroupsWithStatistics() throws Exception {
+        Path file = write(rows());
+
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT row_group_id, row_group_num_rows, stats_min_value,"
+                     + " stats_max_value, stats_null_count, compression FROM parquet_metadata('" + file + "')"
+                     + " WHERE path_in_schema = 'id' ORDER BY row_group_id")) {
+            long expectedRows = ROWS;
+            int rowGroups = 0;
+            while (resultSet.next()) {
+                long rowGroupRows = Math.min(ROW_GROUP_ROWS, expectedRows);
+                long firstId = (long) rowGroups * ROW_GROUP_ROWS + 1;
+                assertEquals(rowGroupRows, resultSet.getLong(2));
+                assertEquals(String.valueOf(firstId), resultSet.getString(3));
+                assertEquals(String.valueOf(firstId + rowGroupRows - 1), resultSet.getString(4));
+                assertEquals(0, resultSet.getLong(5));
+                assertEquals("GZIP", resultSet.getString(6));
+                expectedRows -= rowGroupRows;
+                rowGroups++;
+            }
+            assertEquals(3, rowGroups);
+        }
+    }
+
+    @Test
+    void readsEmptyFile() throws Exception {
+        Path file = write(List.of());
+
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM read_parquet('" + file + "')")) {
+            assertTrue(resultSet.next());
+            assertEquals(0, resultSet.getLong(1));
+            assertFalse(resultSet.next());
+        }
+    }
+
+    private Path write(List<Object[]> rows) throws IOException {
+        Path file = dir.resolve("part-00000001.parquet");
+        try (ParquetWriter writer = new ParquetWriter(Files.newOutputStream(file), COLUMNS, ROW_GROUP_ROWS)) {
+            for (Object[] row : rows) {
+                writer.writeRow(row);
+            }
+            assertEquals(rows.size(), writer.getRowCount());
+        }
+        return file;
+    }
+
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(new Object[] {
+                    (long) i,
+                    i % 2 == 0 ? "default" : "istanbul",
+                    i % 7 == 0 ? null : (long) -i * 1_000_003,
+                    i % 5 == 0 ? null : i % 3 == 0 ? "" : "Çukur #" + i + " – sokak lambası ışığı yok 🚧",
+                    i % 11 == 0 ? null : START.plusSeconds(i * 37L)});
+        }
+        return rows;
+    }
+
+    private static Long nullableLong(ResultSet resultSet, int column) throws SQLException {
+        long value = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,155 @@
+package com.smartcity.service;
+
+import com.smartcity.config.PrimaryReads;
+import com.smartcity.dto.UserDirectoryPage;
+import com.smartcity.dto.UserSummary;
+import com.smartcity.entity.User;
+import com.smartcity.repository.UserRepository;
+import com.smartcity.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the index from a generated user list, loaded in several batches, and pages through
+ * search results with a small page size. Names and emails share prefixes on purpose, so users
+ * match through either key, or both.
+ */
+class UserDirectoryIndexTest {
+
+    private static final String CITY = "istanbul";
+
+    private static final String OTHER_CITY = "default";
+
+    private static final String[] SYLLABLES = {"an", "na", "el", "le", "ka"};
+
+    private static final int PAGE_SIZE = 7;
+
+    private final List<UserSummary> users = new ArrayList<>();
+
+    private UserDirectoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        long id = 0;
+        for (String first : SYLLABLES) {
+            for (String second : SYLLABLES) {
+                for (String third : SYLLABLES) {
+                    id++;
+                    String name = capitalize(first + second) + " " + capitalize(third + first);
+                    // Every other email starts like the name, the rest from its last syllables
+                    String email = (id % 2 == 0 ? first + second : second + third) + id + "@example.com";
+                    User.Role role = id % 3 == 0 ? User.Role.ADMIN : User.Role.CITIZEN;
+                    users.add(new UserSummary(id, name, email, role, id % 5 == 0 ? OTHER_CITY : CITY));
+                }
+            }
+        }
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findSummariesAfterId(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return users.stream().filter(user -> user.getId() > afterId).limit(pageable.getPageSize()).toList();
+        });
+        PrimaryReads primaryReads = mock(PrimaryReads.class);
+        when(primaryReads.call(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
+        index = new UserDirectoryIndex();
+        ReflectionTestUtils.setField(index, "userRepository", userRepository);
+        ReflectionTestUtils.setField(index, "primaryReads", primaryReads);
+        ReflectionTestUtils.setField(index, "loadBatchSize", 10);
+        index.rebuild();
+
+        UserDetailsImpl admin = new UserDetailsImpl(0L, "Admin", "admin@example.com", CITY, "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void pagesThroughPrefixMatchesWithoutDuplicatesOrGaps() {
+        for (String prefix : new String[] {"", "a", "an", "AnNa", "le", "ka", "nael", "zz"}) {
+            for (User.Role role : new User.Role[] {null, User.Role.ADMIN, User.Role.CITIZEN}) {
+                List<Long> found = searchAll(prefix, role);
+                assertEquals(new HashSet<>(found).size(), found.size(), "duplicates for " + prefix + "/" + role);
+                assertEquals(expected(prefix, role), new HashSet<>(found), "matches for " + prefix + "/" + role);
+            }
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        UserDirectoryPage page = index.search("zz", null, null, PAGE_SIZE);
+        assertTrue(page.getUsers().isEmpty());
+        assertNull(page.getNextCursor());
+
+        int cityUsers = expected("", null).size();
+        page = index.search("", null, null, cityUsers);
+        assertEquals(cityUsers, page.getUsers().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void addedUserIsFoundBetweenPages() {
+        UserDirectoryPage first = index.search("an", null, null, PAGE_SIZE);
+        index.add(new UserSummary(1000L, "Zeynep Anna", "annazeynep@example.com", User.Role.CITIZEN, CITY));
+
+        List<Long> found = searchAll("annaz", null);
+        assertEquals(List.of(1000L), found);
+        // A cursor handed out before the signup still continues where it left off
+        UserDirectoryPage second = index.search("an", null, first.getNextCursor(), PAGE_SIZE);
+        assertTrue(second.getUsers().stream().noneMatch(user -> first.getUsers().contains(user)));
+    }
+
+    private List<Long> searchAll(String prefix, User.Role role) {
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserDirectoryPage page = index.search(prefix, role, cursor, PAGE_SIZE);
+            assertTrue(page.getUsers().size() <= PAGE_SIZE);
+            page.getUsers().forEach(user -> found.add(user.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return found;
+    }
+
+    private Set<Long> expected(String prefix, User.Role role) {
+        String normalized = prefix.toLowerCase(Locale.ROOT);
+        Set<Long> expected = new HashSet<>();
+        for (UserSummary user : users) {
+            if (user.getCityId().equals(CITY) && (role == null || user.getRole() == role)
+                    && (user.getName().toLowerCase(Locale.ROOT).startsWith(normalized)
+                    || user.getEmail().startsWith(normalized))) {
+                expected.add(user.getId());
+            }
+        }
+        return expected;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,60 @@
+-- Fixed dataset for the integration tests (H2 only): one admin and three citizens of the
+-- default city, 40 complaints with their status changes, 40 notifications, news, city
+-- services and emergency services. Every user's password is "password". Dates are fixed,
+-- so resolved complaints are always old enough to be archived.
+
+INSERT INTO users (id, city_id, name, email, password, role, phone, address) VALUES
+    (1, 'default', 'Asha Admin', 'admin@example.com', '$2a$10$LSALZh/zOAK04P5MMpCFTOeObKvNiCvAZ5cAhIvm58RBhSWTZp5Ma', 'ADMIN', '555-0100', 'City Hall'),
+    (2, 'default', 'Carlos Citizen', 'carlos@example.com', '$2a$10$LSALZh/zOAK04P5MMpCFTOeObKvNiCvAZ5cAhIvm58RBhSWTZp5Ma', 'CITIZEN', '555-0101', '1 Main St'),
+    (3, 'default', 'Dana Citizen', 'dana@example.com', '$2a$10$LSALZh/zOAK04P5MMpCFTOeObKvNiCvAZ5cAhIvm58RBhSWTZp5Ma', 'CITIZEN', '555-0102', '2 Main St'),
+    (4, 'default', 'Elif Citizen', 'elif@example.com', '$2a$10$LSALZh/zOAK04P5MMpCFTOeObKvNiCvAZ5cAhIvm58RBhSWTZp5Ma', 'CITIZEN', NULL, NULL);
+ALTER TABLE users ALTER COLUMN id RESTART WITH 100;
+
+-- Every third complaint is pending, then in progress, then resolved
+INSERT INTO complaints (id, city_id, title, description, category, status, created_at, updated_at, first_response_at, user_id)
+SELECT x, 'default', 'Complaint #' || x, 'Seeded complaint number ' || x,
+       CASEWHEN(MOD(x, 2) = 0, 'Roads', 'Water'),
+       CASE MOD(x, 3) WHEN 1 THEN 'PENDING' WHEN 2 THEN 'IN_PROGRESS' ELSE 'RESOLVED' END,
+       DATEADD('HOUR', x, TIMESTAMP '2025-01-01 08:00:00'),
+       DATEADD('HOUR', x + 24, TIMESTAMP '2025-01-01 08:00:00'),
+       CASEWHEN(MOD(x, 3) = 1, NULL, DATEADD('HOUR', x + 2, TIMESTAMP '2025-01-01 08:00:00')),
+       2 + MOD(x, 3)
+FROM SYSTEM_RANGE(1, 40) AS seq(x);
+
+INSERT INTO complaint_status_changes (city_id, complaint_id, from_status, to_status, changed_at, changed_by)
+SELECT 'default', x, 0, 1, DATEADD('HOUR', x + 2, TIMESTAMP '2025-01-01 08:00:00'), 1
+FROM SYSTEM_RANGE(1, 40) AS seq(x) WHERE MOD(x, 3) <> 1;
+
+INSERT INTO complaint_status_changes (city_id, complaint_id, from_status, to_status, changed_at, changed_by)
+SELECT 'default', x, 1, 2, DATEADD('HOUR', x + 24, TIMESTAMP '2025-01-01 08:00:00'), 1
+FROM SYSTEM_RANGE(1, 40) AS seq(x) WHERE MOD(x, 3) = 0;
+
+INSERT INTO notifications (id, city_id, message, created_at, user_id)
+SELECT x, 'default', 'Update on complaint #' || x, DATEADD('HOUR', x + 2, TIMESTAMP '2025-01-01 08:00:00'), 2 + MOD(x, 3)
+FROM SYSTEM_RANGE(1, 40) AS seq(x);
+
+UPDATE id_generators SET next_val = 100 WHERE sequence_name IN ('complaints', 'notifications');
+
+INSERT INTO city_news (id, city_id, title, content, image_url, created_at)
+SELECT x, 'default', 'City news #' || x, 'Seeded news item number ' || x, NULL,
+       DATEADD('DAY', x, TIMESTAMP '2025-01-01 08:00:00')
+FROM SYSTEM_RANGE(1, 10) AS seq(x);
+ALTER TABLE city_news ALTER COLUMN id RESTART WITH 100;
+
+INSERT INTO city_services (id, city_id, name, description, department) VALUES
+    (1, 'default', 'Waste Collection', 'Weekly household waste pickup', 'Sanitation'),
+    (2, 'default', 'Water Supply', 'Municipal water connections', 'Utilities'),
+    (3, 'default', 'Street Lighting', 'Repair of street lights', 'Electricity'),
+    (4, 'default', 'Parks', 'Maintenance of public parks', 'Recreation'),
+    (5, 'default', 'Building Permits', 'Residential building permits', 'Planning'),
+    (6, 'default', 'Public Libraries', 'Branch libraries and reading rooms', 'Culture');
+ALTER TABLE city_services ALTER COLUMN id RESTART WITH 100;
+
+INSERT INTO emergency_services (id, city_id, service_name, contact_number, description) VALUES
+    (1, 'default', 'Police', '100', 'Police control room'),
+    (2, 'default', 'Fire', '101', 'Fire brigade'),
+    (3, 'default', 'Ambulance', '102', 'Medical emergencies'),
+    (4, 'default', 'Disaster Management', '108', 'Floods and storms'),
+    (5, 'default', 'Women Helpline', '1091', 'Round-the-clock helpline'),
+    (6, 'default', 'Gas Leak', '1906', 'Gas leak emergencies');
+ALTER TABLE emergency_services ALTER COLUMN id RESTART WITH 100;